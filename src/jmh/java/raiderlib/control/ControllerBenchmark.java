@@ -0,0 +1,63 @@
+package raiderlib.control;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import raiderlib.geometry.Pose;
+import raiderlib.path.BenchmarkPaths;
+import raiderlib.path.Path;
+import raiderlib.path.TrajBuffer;
+import raiderlib.path.WayPointPath;
+
+/**
+ * This class benchmarks the per-tick cost of pursuit_path at different
+ * positions along a path
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ControllerBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    int waypointCount;
+
+    @Param({ "0.1", "0.5", "0.9" })
+    double progress;
+
+    @Param({ "false", "true" })
+    boolean indexed;
+
+    final DriveCharacterization driveCharacterization = new DriveCharacterization(14, 14, 25);
+    final DriveCommand command = new DriveCommand(0, 0);
+    Path path;
+    PurePursuitController controller;
+    Pose pose;
+    int startPoint;
+
+    @Setup
+    public void setup() {
+        path = new WayPointPath(BenchmarkPaths.waypoints(waypointCount));
+        if (indexed)
+            path.build_index(12);
+        controller = new PurePursuitController(path, driveCharacterization, 12);
+        final TrajBuffer points = path.get_buffer();
+        startPoint = (int) (progress * (points.size - 1));
+        pose = new Pose(points.x[startPoint], points.y[startPoint] + 1, 0);
+    }
+
+    @Benchmark
+    public DriveCommand pursuit_path() {
+        controller.closestPoint = startPoint;
+        controller.lookAheadPoint = startPoint;
+        controller.isFinished = false;
+        return controller.pursuit_path(pose, command);
+    }
+}
@@ -0,0 +1,51 @@
+package raiderlib.control;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import raiderlib.path.BenchmarkPaths;
+import raiderlib.path.TrajBuffer;
+import raiderlib.path.WayPointPath;
+
+/**
+ * This class benchmarks calculating the lookup velocities of a path
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VelocityBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    int waypointCount;
+
+    final DriveCharacterization driveCharacterization = new DriveCharacterization(14, 14, 25);
+    final VelocityProfiler profiler = new VelocityProfiler(driveCharacterization);
+    final VelocityProfiler constrained = new VelocityProfiler(driveCharacterization,
+            new CentripetalConstraint(10), new WheelConstraint(driveCharacterization));
+    TrajBuffer points;
+
+    @Setup
+    public void setup() {
+        points = new WayPointPath(BenchmarkPaths.waypoints(waypointCount)).get_buffer();
+    }
+
+    @Benchmark
+    public TrajBuffer calc_velocity() {
+        profiler.profile(points);
+        return points;
+    }
+
+    @Benchmark
+    public TrajBuffer calc_velocity_constrained() {
+        constrained.profile(points);
+        return points;
+    }
+}
@@ -0,0 +1,36 @@
+package raiderlib.geometry;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import raiderlib.control.DriveCharacterization;
+
+/**
+ * This class benchmarks odometry updates of a pose
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PoseBenchmark {
+
+    final DriveCharacterization driveCharacterization = new DriveCharacterization(14, 14, 25);
+    final Pose pose = new Pose(0, 0, 0);
+    double gyro = 0;
+
+    @Benchmark
+    public Pose update_encoders() {
+        return pose.update(driveCharacterization, 0.10, 0.12);
+    }
+
+    @Benchmark
+    public Pose update_gyro() {
+        gyro += 0.001;
+        return pose.update(gyro, 0.10, 0.12);
+    }
+}
@@ -0,0 +1,25 @@
+package raiderlib.path;
+
+import java.util.ArrayList;
+
+/**
+ * This class is used to build deterministic waypoint sets for the benchmarks
+ */
+public final class BenchmarkPaths {
+
+    private BenchmarkPaths() {
+    }
+
+    /**
+     * This method builds a weaving path across the field
+     * 
+     * @param count number of waypoints
+     * @return an ArrayList with the waypoints
+     */
+    public static ArrayList<WayPoint> waypoints(final int count) {
+        final ArrayList<WayPoint> waypoints = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            waypoints.add(new WayPoint(12 * i, (i % 2 == 0) ? 0 : 24));
+        return waypoints;
+    }
+}
@@ -0,0 +1,51 @@
+package raiderlib.path;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * This class benchmarks the construction of a path and its calc_tan and
+ * gen_points steps across waypoint counts
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PathBenchmark {
+
+    @Param({ "2", "10", "100", "1000" })
+    int waypointCount;
+
+    ArrayList<WayPoint> waypoints;
+    Path path;
+
+    @Setup
+    public void setup() {
+        waypoints = BenchmarkPaths.waypoints(waypointCount);
+        path = new WayPointPath(waypoints);
+    }
+
+    @Benchmark
+    public Path construct() {
+        return new WayPointPath(BenchmarkPaths.waypoints(waypointCount));
+    }
+
+    @Benchmark
+    public ArrayList<WayPoint> calc_tan() {
+        path.calc_tan(waypoints);
+        return waypoints;
+    }
+
+    @Benchmark
+    public TrajBuffer gen_points() {
+        return path.gen_points(waypoints, 1);
+    }
+}
@@ -0,0 +1,35 @@
+package raiderlib.control;
+
+/**
+ * This class is used to limit the centripetal acceleration of the robot in
+ * turns, so v^2 * curvature stays under a max acceleration
+ */
+public class CentripetalConstraint implements VelocityConstraint {
+
+    final double maxAcceleration;
+
+    /**
+     * Constructor for CentripetalConstraint class
+     * 
+     * @param maxAcceleration max centripetal acceleration
+     */
+    public CentripetalConstraint(final double maxAcceleration) {
+        this.maxAcceleration = maxAcceleration;
+    }
+
+    @Override
+    public double get_max_velocity(final double x, final double y, final double curvature) {
+        return (curvature == 0) ? Double.POSITIVE_INFINITY : Math.sqrt(maxAcceleration / curvature);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof CentripetalConstraint
+                && Double.compare(maxAcceleration, ((CentripetalConstraint) o).maxAcceleration) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(maxAcceleration);
+    }
+}
@@ -0,0 +1,66 @@
+package raiderlib.control;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * This class is used to pass the latest DriveCommand from the control thread to
+ * the thread driving the motors. It holds a single command, so a new command
+ * replaces one that was not taken yet and the motors always get the newest
+ * command. Neither side blocks the other
+ */
+public class CommandHandoff {
+
+    final StampedLock lock = new StampedLock();
+    double left;
+    double right;
+    long sequence;
+    long taken;
+
+    /**
+     * This method publishes a command, replacing the previous one
+     * 
+     * @param command command to publish, it is copied
+     */
+    public void publish(final DriveCommand command) {
+        publish(command.left_command, command.right_command);
+    }
+
+    /**
+     * This method publishes a command, replacing the previous one
+     * 
+     * @param left  left command
+     * @param right right command
+     */
+    public void publish(final double left, final double right) {
+        final long stamp = lock.writeLock();
+        this.left = left;
+        this.right = right;
+        sequence++;
+        lock.unlockWrite(stamp);
+    }
+
+    /**
+     * This method copies the latest command into a given command. It should only
+     * be called from one thread
+     * 
+     * @param out command the latest command is copied into
+     * @return a boolean of whether a command was published since the last take
+     */
+    public boolean take(final DriveCommand out) {
+        while (true) {
+            final long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                final double left = this.left;
+                final double right = this.right;
+                final long sequence = this.sequence;
+                if (lock.validate(stamp)) {
+                    out.copy(left, right);
+                    final boolean fresh = sequence != taken;
+                    taken = sequence;
+                    return fresh;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
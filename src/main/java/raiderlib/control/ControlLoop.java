@@ -0,0 +1,206 @@
+package raiderlib.control;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+
+import raiderlib.geometry.Odometry;
+
+/**
+ * This class is used to run odometry and a PurePursuitController on their own
+ * thread at a fixed rate. Each tick is scheduled from an absolute deadline, so
+ * slow ticks do not make the loop drift. Odometry is updated every tick and
+ * the controller every few ticks, and each command is handed to the motors
+ * through a CommandHandoff. Ticks that end after the next deadline are counted
+ * as overruns, and the ticks they cover are skipped instead of run late. The
+ * skipped ticks still count towards the control divisor, so the controller
+ * stays on the same deadlines
+ */
+public class ControlLoop {
+
+    final PurePursuitController controller;
+    final Odometry odometry;
+    final OdometryUpdater updater;
+    final CommandHandoff handoff;
+    final long periodNanos;
+    final int controlDivisor;
+    final LongSupplier clock;
+    final StampedLock lock = new StampedLock();
+    final LoopStats stats = new LoopStats();
+    final DriveCommand command = new DriveCommand(0, 0);
+    volatile boolean running;
+    Thread thread;
+
+    /**
+     * Constructor for ControlLoop class
+     * 
+     * @param controller     controller following the path
+     * @param odometry       odometry the robot's pose is read from
+     * @param updater        reads the sensors into the odometry every tick
+     * @param handoff        handoff the commands are published to
+     * @param periodNanos    time between odometry updates in nanoseconds
+     * @param controlDivisor number of odometry updates per controller update
+     */
+    public ControlLoop(final PurePursuitController controller, final Odometry odometry,
+            final OdometryUpdater updater, final CommandHandoff handoff, final long periodNanos,
+            final int controlDivisor) {
+        this(controller, odometry, updater, handoff, periodNanos, controlDivisor, System::nanoTime);
+    }
+
+    /**
+     * Constructor for ControlLoop class
+     * 
+     * @param controller     controller following the path
+     * @param odometry       odometry the robot's pose is read from
+     * @param updater        reads the sensors into the odometry every tick
+     * @param handoff        handoff the commands are published to
+     * @param periodNanos    time between odometry updates in nanoseconds
+     * @param controlDivisor number of odometry updates per controller update
+     * @param clock          time source in nanoseconds, System::nanoTime on the
+     *                       robot
+     */
+    public ControlLoop(final PurePursuitController controller, final Odometry odometry,
+            final OdometryUpdater updater, final CommandHandoff handoff, final long periodNanos,
+            final int controlDivisor, final LongSupplier clock) {
+        if (periodNanos <= 0 || controlDivisor <= 0)
+            throw new IllegalArgumentException("period and control divisor must be positive");
+        this.controller = controller;
+        this.odometry = odometry;
+        this.updater = updater;
+        this.handoff = handoff;
+        this.periodNanos = periodNanos;
+        this.controlDivisor = controlDivisor;
+        this.clock = clock;
+    }
+
+    /**
+     * This method starts the loop on a new thread. It does nothing while the loop
+     * is running or its thread is still stopping
+     */
+    public synchronized void start() {
+        if (running || (thread != null && thread.isAlive()))
+            return;
+        running = true;
+        thread = new Thread(this::run, "raiderlib-control-loop");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * This method stops the loop and waits for its thread to finish. A stop
+     * command is published once the loop has stopped. Called from the loop
+     * thread, for example by the OdometryUpdater, it returns without waiting and
+     * the loop stops after the current tick
+     * 
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (thread == Thread.currentThread())
+            return;
+        if (thread != null) {
+            thread.join();
+            thread = null;
+        }
+    }
+
+    /**
+     * This method tells whether the loop is running
+     * 
+     * @return a boolean of whether the loop is running
+     */
+    public boolean is_running() {
+        return running;
+    }
+
+    /**
+     * This method runs ticks until the loop is stopped. The robot is stopped if a
+     * tick throws
+     */
+    void run() {
+        long deadline = clock.getAsLong();
+        long tick = 0;
+        try {
+            while (running) {
+                final long start = clock.getAsLong();
+                updater.update_odometry(odometry);
+                final boolean control = tick % controlDivisor == 0;
+                if (control) {
+                    controller.pursuit_path(odometry.get_shared_pose(), command);
+                    handoff.publish(command);
+                }
+                final long end = clock.getAsLong();
+                deadline += periodNanos;
+                long missed = 0;
+                if (end > deadline) {
+                    missed = (end - deadline) / periodNanos + 1;
+                    deadline += missed * periodNanos;
+                }
+                tick += 1 + missed;
+                long now = end;
+                while (now < deadline && running) {
+                    LockSupport.parkNanos(deadline - now);
+                    now = clock.getAsLong();
+                }
+                record(start, end, now - deadline, control, missed);
+            }
+        } finally {
+            running = false;
+            handoff.publish(0, 0);
+        }
+    }
+
+    /**
+     * This method records the timing of one tick
+     * 
+     * @param start   time the tick started
+     * @param end     time the work of the tick ended
+     * @param jitter  time the loop woke up after the next deadline
+     * @param control whether the controller ran this tick
+     * @param missed  number of ticks skipped because the tick overran
+     */
+    void record(final long start, final long end, final long jitter, final boolean control, final long missed) {
+        final long stamp = lock.writeLock();
+        stats.ticks++;
+        if (control)
+            stats.controlTicks++;
+        if (missed > 0) {
+            stats.overruns++;
+            stats.missedTicks += missed;
+        }
+        if (jitter > 0) {
+            stats.totalJitter += jitter;
+            if (jitter > stats.maxJitter)
+                stats.maxJitter = jitter;
+        }
+        if (end - start > stats.maxWork)
+            stats.maxWork = end - start;
+        lock.unlockWrite(stamp);
+    }
+
+    /**
+     * This method copies the timing statistics of the loop. It can be called from
+     * any thread
+     * 
+     * @param out statistics the current values are copied into
+     * @return the out statistics
+     */
+    public LoopStats get_stats(final LoopStats out) {
+        while (true) {
+            final long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                out.ticks = stats.ticks;
+                out.controlTicks = stats.controlTicks;
+                out.overruns = stats.overruns;
+                out.missedTicks = stats.missedTicks;
+                out.totalJitter = stats.totalJitter;
+                out.maxJitter = stats.maxJitter;
+                out.maxWork = stats.maxWork;
+                if (lock.validate(stamp))
+                    return out;
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package raiderlib.control;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * This class is used to record per-tick metrics of a PurePursuitController.
+ * Recording is allocation-free and meant to be called from the control thread
+ * only. Other threads read consistent copies with snapshot, which never blocks
+ * the control thread
+ */
+public class ControllerMetrics {
+
+    /**
+     * Number of latency buckets. Bucket 0 holds ticks under 1024 ns, bucket k holds
+     * ticks under 1024 << k ns, and the last bucket also holds everything longer
+     */
+    public static final int BUCKETS = 20;
+
+    final StampedLock lock = new StampedLock();
+    final long[] latency = new long[BUCKETS];
+    long ticks;
+    long totalLatency;
+    long maxLatency;
+    long closestScanned;
+    long lookAheadScanned;
+    long lookAheadAdvance;
+    long lookAheadMisses;
+
+    /**
+     * This method records one tick of the controller
+     * 
+     * @param latencyNanos     duration of the tick in nanoseconds
+     * @param closestScanned   points checked by the closest point search
+     * @param lookAheadScanned points checked by the lookahead search
+     * @param lookAheadAdvance how far the lookahead index moved
+     * @param lookAheadMiss    whether the lookahead search found no point
+     */
+    public void record(final long latencyNanos, final int closestScanned, final int lookAheadScanned,
+            final int lookAheadAdvance, final boolean lookAheadMiss) {
+        final long stamp = lock.writeLock();
+        latency[get_bucket(latencyNanos)]++;
+        ticks++;
+        totalLatency += latencyNanos;
+        if (latencyNanos > maxLatency)
+            maxLatency = latencyNanos;
+        this.closestScanned += closestScanned;
+        this.lookAheadScanned += lookAheadScanned;
+        this.lookAheadAdvance += lookAheadAdvance;
+        if (lookAheadMiss)
+            lookAheadMisses++;
+        lock.unlockWrite(stamp);
+    }
+
+    /**
+     * This method copies the current metrics into a snapshot. It can be called
+     * from any thread
+     * 
+     * @param out snapshot the metrics are copied into
+     * @return the out snapshot
+     */
+    public MetricsSnapshot snapshot(final MetricsSnapshot out) {
+        while (true) {
+            final long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                System.arraycopy(latency, 0, out.latency, 0, BUCKETS);
+                out.ticks = ticks;
+                out.totalLatency = totalLatency;
+                out.maxLatency = maxLatency;
+                out.closestScanned = closestScanned;
+                out.lookAheadScanned = lookAheadScanned;
+                out.lookAheadAdvance = lookAheadAdvance;
+                out.lookAheadMisses = lookAheadMisses;
+                if (lock.validate(stamp))
+                    return out;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * This method copies the current metrics into a new snapshot
+     * 
+     * @return snapshot of the metrics
+     */
+    public MetricsSnapshot snapshot() {
+        return snapshot(new MetricsSnapshot());
+    }
+
+    /**
+     * This method clears all recorded metrics
+     */
+    public void reset() {
+        final long stamp = lock.writeLock();
+        for (int i = 0; i < BUCKETS; i++)
+            latency[i] = 0;
+        ticks = 0;
+        totalLatency = 0;
+        maxLatency = 0;
+        closestScanned = 0;
+        lookAheadScanned = 0;
+        lookAheadAdvance = 0;
+        lookAheadMisses = 0;
+        lock.unlockWrite(stamp);
+    }
+
+    /**
+     * This method finds the latency bucket of a tick duration
+     * 
+     * @param latencyNanos duration of the tick in nanoseconds
+     * @return index of the bucket
+     */
+    public static int get_bucket(final long latencyNanos) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(latencyNanos, 0) >> 10));
+    }
+
+    /**
+     * This method returns the exclusive upper limit of a latency bucket
+     * 
+     * @param bucket index of the bucket
+     * @return upper limit in nanoseconds, the last bucket has no limit
+     */
+    public static long get_bucket_limit(final int bucket) {
+        return (bucket == BUCKETS - 1) ? Long.MAX_VALUE : 1024L << bucket;
+    }
+}
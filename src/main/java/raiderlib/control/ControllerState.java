@@ -0,0 +1,18 @@
+package raiderlib.control;
+
+/**
+ * This class is used to hold a copy of the outputs of a PurePursuitController
+ * after one of its ticks
+ */
+public class ControllerState {
+    public long ticks;
+    public boolean finished;
+    public int closestPoint;
+    public int lookAheadPoint;
+    public double lookAheadX;
+    public double lookAheadY;
+    public double leftCommand;
+    public double rightCommand;
+    public double remainingDistance;
+    public double remainingTime;
+}
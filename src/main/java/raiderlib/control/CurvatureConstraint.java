@@ -0,0 +1,41 @@
+package raiderlib.control;
+
+/**
+ * This class is used to slow the robot down in turns by dividing a velocity by
+ * the curvature. It is the curve limit the controller has always used, with a
+ * scale of 50
+ */
+public class CurvatureConstraint implements VelocityConstraint {
+
+    final double maxVelocity;
+    final double scale;
+
+    /**
+     * Constructor for CurvatureConstraint class
+     * 
+     * @param maxVelocity max velocity of the robot
+     * @param scale       the limit is maxVelocity / (curvature * scale)
+     */
+    public CurvatureConstraint(final double maxVelocity, final double scale) {
+        this.maxVelocity = maxVelocity;
+        this.scale = scale;
+    }
+
+    @Override
+    public double get_max_velocity(final double x, final double y, final double curvature) {
+        return (curvature == 0) ? Double.POSITIVE_INFINITY : maxVelocity / (curvature * scale);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof CurvatureConstraint))
+            return false;
+        final CurvatureConstraint c = (CurvatureConstraint) o;
+        return Double.compare(maxVelocity, c.maxVelocity) == 0 && Double.compare(scale, c.scale) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(maxVelocity) + Double.hashCode(scale);
+    }
+}
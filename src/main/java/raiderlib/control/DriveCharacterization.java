@@ -19,4 +19,21 @@ public class DriveCharacterization {
         this.trackWidth = trackWidth;
     }
 
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof DriveCharacterization))
+            return false;
+        final DriveCharacterization d = (DriveCharacterization) o;
+        return Double.compare(maxVelocity, d.maxVelocity) == 0
+                && Double.compare(maxAcceleration, d.maxAcceleration) == 0
+                && Double.compare(trackWidth, d.trackWidth) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Double.hashCode(maxVelocity);
+        hash = 31 * hash + Double.hashCode(maxAcceleration);
+        return 31 * hash + Double.hashCode(trackWidth);
+    }
+
 }
\ No newline at end of file
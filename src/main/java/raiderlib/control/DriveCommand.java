@@ -17,4 +17,15 @@ public class DriveCommand {
         this.left_command = left_command;
         this.right_command = right_command;
     }
+
+    /**
+     * This method copies a given left and right command into the command
+     * 
+     * @param left_command  left command copied
+     * @param right_command right command copied
+     */
+    public void copy(final double left_command, final double right_command) {
+        this.left_command = left_command;
+        this.right_command = right_command;
+    }
 }
\ No newline at end of file
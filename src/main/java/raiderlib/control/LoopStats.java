@@ -0,0 +1,23 @@
+package raiderlib.control;
+
+/**
+ * This class is used to hold a copy of the timing statistics of a ControlLoop
+ */
+public class LoopStats {
+    public long ticks;
+    public long controlTicks;
+    public long overruns;
+    public long missedTicks;
+    public long totalJitter;
+    public long maxJitter;
+    public long maxWork;
+
+    /**
+     * This method calculates the mean time the loop woke up after its deadline
+     * 
+     * @return mean jitter in nanoseconds
+     */
+    public double get_mean_jitter() {
+        return (ticks == 0) ? 0 : (double) totalJitter / ticks;
+    }
+}
@@ -0,0 +1,52 @@
+package raiderlib.control;
+
+/**
+ * This class is used to hold a copy of the metrics of a PurePursuitController
+ */
+public class MetricsSnapshot {
+    public final long[] latency = new long[ControllerMetrics.BUCKETS];
+    public long ticks;
+    public long totalLatency;
+    public long maxLatency;
+    public long closestScanned;
+    public long lookAheadScanned;
+    public long lookAheadAdvance;
+    public long lookAheadMisses;
+
+    /**
+     * This method calculates the mean tick latency
+     * 
+     * @return mean latency in nanoseconds
+     */
+    public double get_mean_latency() {
+        return (ticks == 0) ? 0 : (double) totalLatency / ticks;
+    }
+
+    /**
+     * This method estimates a latency percentile from the histogram
+     * 
+     * @param percentile percentile between 0 and 1
+     * @return upper limit in nanoseconds of the bucket holding the percentile, or
+     *         the max latency if it falls in the last bucket
+     */
+    public long get_latency_percentile(final double percentile) {
+        final long rank = (long) Math.ceil(percentile * ticks);
+        long count = 0;
+        for (int i = 0; i < ControllerMetrics.BUCKETS - 1; i++) {
+            count += latency[i];
+            if (count >= rank && count > 0)
+                return Math.min(ControllerMetrics.get_bucket_limit(i), maxLatency);
+        }
+        return maxLatency;
+    }
+
+    /**
+     * This method calculates the mean number of points checked per tick by both
+     * searches
+     * 
+     * @return mean points scanned per tick
+     */
+    public double get_mean_scanned() {
+        return (ticks == 0) ? 0 : (double) (closestScanned + lookAheadScanned) / ticks;
+    }
+}
@@ -0,0 +1,19 @@
+package raiderlib.control;
+
+import raiderlib.geometry.Odometry;
+
+/**
+ * This interface is used by a ControlLoop to read the encoders and gyro of the
+ * robot. Implement it to pass the latest sensor deltas to the odometry
+ */
+public interface OdometryUpdater {
+
+    /**
+     * This method reads the sensors and updates the odometry with the distance
+     * traveled since the last call. It is called on the loop thread every
+     * odometry period
+     * 
+     * @param odometry odometry to update
+     */
+    void update_odometry(Odometry odometry);
+}
@@ -1,23 +1,54 @@
 package raiderlib.control;
 
-import java.util.ArrayList;
+import java.util.concurrent.locks.StampedLock;
 
 import raiderlib.geometry.Point;
 import raiderlib.geometry.Pose;
+import raiderlib.geometry.Rotation;
+import raiderlib.geometry.SharedPose;
 import raiderlib.path.Path;
-import raiderlib.path.TrajPoint;
+import raiderlib.path.PathIndex;
+import raiderlib.path.TrajBuffer;
 
 /**
  * This class is used as a PurePursuitController. To pursuit a path, use the
  * pursuit_path method To pursuit a point, use the pursuit_point method
+ * 
+ * The controller should be called from one thread. To watch it from other
+ * threads, enable state publishing and read copies with get_state, which never
+ * blocks the control thread
  */
 public class PurePursuitController {
+    /**
+     * Shortest lookahead distance used on tight curves
+     */
+    public static final double MIN_LOOK_AHEAD = 2;
+    /**
+     * Distance from the end of the path within which the robot has finished it
+     */
+    public static final double FINISH_TOLERANCE = 1;
+
     DriveCharacterization driveCharacterization;
+    VelocityProfiler profiler;
     double lookAheadDistance;
-    boolean isFinished;
+    volatile boolean isFinished;
     Path path;
     int lookAheadPoint = 0;
+    double lookAheadFraction;
     int closestPoint = 0;
+    int searchWindow = Integer.MAX_VALUE;
+    int profiledSize;
+    TrajBuffer profiledBuffer;
+    final Point lookAhead = new Point(0, 0);
+    boolean lookAheadFound;
+    double arcCurvature;
+    ControllerMetrics metrics;
+    final int[] closestScanned = new int[1];
+    final int[] lookAheadScanned = new int[1];
+    final Pose input = new Pose(0, 0, 0);
+    final StampedLock stateLock = new StampedLock();
+    final ControllerState state = new ControllerState();
+    volatile boolean publishState;
 
     /**
      * Constructor for PurePursuitController class
@@ -27,16 +58,34 @@ public class PurePursuitController {
      */
     public PurePursuitController(final Path path, final DriveCharacterization driveCharacterization,
             final double lookAheadDistance) {
+        this(path, driveCharacterization, lookAheadDistance, new VelocityProfiler(driveCharacterization));
+    }
+
+    /**
+     * Constructor for PurePursuitController class
+     * 
+     * @param path                  path to pursuit
+     * @param driveCharacterization driveCharacterization of robot
+     * @param lookAheadDistance     max lookahead distance
+     * @param profiler              profiler to calculate the lookup velocities
+     *                              with
+     */
+    public PurePursuitController(final Path path, final DriveCharacterization driveCharacterization,
+            final double lookAheadDistance, final VelocityProfiler profiler) {
         this.driveCharacterization = driveCharacterization;
         this.lookAheadDistance = lookAheadDistance;
         this.path = path;
-        calc_velocity(driveCharacterization, path.get_points());
+        this.profiler = profiler;
+        profile(path, profiler);
+        profiledBuffer = path.get_buffer();
+        profiledSize = profiledBuffer.size;
         isFinished = false;
     }
 
     public PurePursuitController(final DriveCharacterization driveCharacterization, final double lookAheadDistance) {
         this.driveCharacterization = driveCharacterization;
         this.lookAheadDistance = lookAheadDistance;
+        this.profiler = new VelocityProfiler(driveCharacterization);
         isFinished = false;
     }
 
@@ -48,19 +97,128 @@ public class PurePursuitController {
      * @return a DriveCommand for the robot to follow
      */
     public DriveCommand pursuit_path(final Pose currPose) {
-        final TrajPoint closestPoint = get_closest_point(path, currPose);
-        final Point lookAheadPoint = get_lookAhead_point(path, currPose,
-                (1 / closestPoint.curvature < this.lookAheadDistance) ? 1 / closestPoint.curvature
-                        : this.lookAheadDistance);
-        if (Math.abs(currPose.dist(lookAheadPoint)) <= 1) {
+        return pursuit_path(currPose, new DriveCommand(0, 0));
+    }
+
+    /**
+     * This method is used to pursuit a path without allocating. The points are
+     * walked by index from the last known closest and lookahead points, and the
+     * result is written into the given command
+     * 
+     * @param currPose robot's current pose
+     * @param output   DriveCommand the result is written into
+     * @return the output DriveCommand for the robot to follow
+     */
+    public DriveCommand pursuit_path(final Pose currPose, final DriveCommand output) {
+        final ControllerMetrics metrics = this.metrics;
+        if (metrics == null)
+            pursuit(currPose, output);
+        else {
+            final long start = System.nanoTime();
+            final int previousLookAhead = lookAheadPoint;
+            closestScanned[0] = 0;
+            lookAheadScanned[0] = 0;
+            pursuit(currPose, output);
+            metrics.record(System.nanoTime() - start, closestScanned[0], lookAheadScanned[0],
+                    lookAheadPoint - previousLookAhead, !lookAheadFound);
+        }
+        if (publishState)
+            publish_state(output);
+        return output;
+    }
+
+    /**
+     * This method is used to pursuit a path from a pose shared with a sensor
+     * thread. The pose is copied once at the start of the tick
+     * 
+     * @param currPose robot's current pose
+     * @param output   DriveCommand the result is written into
+     * @return the output DriveCommand for the robot to follow
+     */
+    public DriveCommand pursuit_path(final SharedPose currPose, final DriveCommand output) {
+        return pursuit_path(currPose.get(input), output);
+    }
+
+    /**
+     * This method enables copying the outputs of each tick for other threads to
+     * read with get_state
+     * 
+     * @param publishState whether to publish the state after each tick
+     */
+    public void set_publish_state(final boolean publishState) {
+        this.publishState = publishState;
+    }
+
+    /**
+     * This method copies the outputs of a tick for other threads
+     * 
+     * @param output command of the tick
+     */
+    void publish_state(final DriveCommand output) {
+        final TrajBuffer points = path.get_buffer();
+        final int last = points.size - 1;
+        final int closest = Math.min(closestPoint, last);
+        final long stamp = stateLock.writeLock();
+        state.ticks++;
+        state.finished = isFinished;
+        state.closestPoint = closestPoint;
+        state.lookAheadPoint = lookAheadPoint;
+        state.lookAheadX = lookAhead.x;
+        state.lookAheadY = lookAhead.y;
+        state.leftCommand = output.left_command;
+        state.rightCommand = output.right_command;
+        state.remainingDistance = points.distance[last] - points.distance[closest];
+        state.remainingTime = points.time[last] - points.time[closest];
+        stateLock.unlockWrite(stamp);
+    }
+
+    /**
+     * This method copies the state published after the last tick. It can be
+     * called from any thread
+     * 
+     * @param out state the published state is copied into
+     * @return the out state
+     */
+    public ControllerState get_state(final ControllerState out) {
+        while (true) {
+            final long stamp = stateLock.tryOptimisticRead();
+            if (stamp != 0) {
+                out.ticks = state.ticks;
+                out.finished = state.finished;
+                out.closestPoint = state.closestPoint;
+                out.lookAheadPoint = state.lookAheadPoint;
+                out.lookAheadX = state.lookAheadX;
+                out.lookAheadY = state.lookAheadY;
+                out.leftCommand = state.leftCommand;
+                out.rightCommand = state.rightCommand;
+                out.remainingDistance = state.remainingDistance;
+                out.remainingTime = state.remainingTime;
+                if (stateLock.validate(stamp))
+                    return out;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    DriveCommand pursuit(final Pose currPose, final DriveCommand output) {
+        final TrajBuffer points = advance_path();
+        final PathIndex index = path.get_index();
+        final int closestPoint = get_closest_point(points, index, currPose);
+        final double radius = Math.max(1 / Math.abs(points.curvature[closestPoint]), MIN_LOOK_AHEAD);
+        final Point lookAheadPoint = get_lookAhead_point(points, index, currPose,
+                Math.min(radius, this.lookAheadDistance));
+        if (path.is_complete() && this.lookAheadPoint == points.size - 2 && lookAheadFraction == 1
+                && currPose.dist(lookAheadPoint) <= FINISH_TOLERANCE) {
             isFinished = true;
-            return new DriveCommand(0, 0);
+            output.copy(0, 0);
+            return output;
         }
-        return pursuit_point(lookAheadPoint, currPose, closestPoint.velocity);
+        return pursuit_point(lookAheadPoint, currPose, get_velocity(points, closestPoint, currPose), output);
     }
 
     /**
-     * This method tells whether the robot has finished the path
+     * This method tells whether the robot has finished the path. It can be
+     * called from any thread
      * 
      * @return a boolean of whether the robot has finished the path
      */
@@ -68,6 +226,81 @@ public class PurePursuitController {
         return isFinished;
     }
 
+    /**
+     * This method returns the index of the closest point to the robot found by
+     * the last pursuit
+     * 
+     * @return index of the closest point in the buffer of the path
+     */
+    public int get_closest_point() {
+        return closestPoint;
+    }
+
+    /**
+     * This method returns the index of the segment the lookahead point found by
+     * the last pursuit is on
+     * 
+     * @return index of the point before the lookahead point in the buffer of the
+     *         path
+     */
+    public int get_lookAhead_index() {
+        return lookAheadPoint;
+    }
+
+    /**
+     * This method returns the position of the lookahead point found by the last
+     * pursuit between the points of the path
+     * 
+     * @return index of the point before the lookahead point plus the fraction of
+     *         the way to the next point
+     */
+    public double get_lookAhead_fractional_index() {
+        return lookAheadPoint + lookAheadFraction;
+    }
+
+    /**
+     * This method returns the lookahead point found by the last pursuit
+     * 
+     * @return the lookahead point, it is reused by later ticks
+     */
+    public Point get_lookAhead() {
+        return lookAhead;
+    }
+
+    /**
+     * This method returns the curvature of the arc the robot was last commanded
+     * to drive
+     * 
+     * @return the curvature of the arc
+     */
+    public double get_curvature() {
+        return arcCurvature;
+    }
+
+    /**
+     * This method returns the distance left along the path from the closest point
+     * to the robot. Only the generated points are counted for paths that are not
+     * complete
+     * 
+     * @return distance left to the end of the path
+     */
+    public double get_remaining_distance() {
+        final TrajBuffer points = path.get_buffer();
+        return points.distance[points.size - 1] - points.distance[Math.min(closestPoint, points.size - 1)];
+    }
+
+    /**
+     * This method estimates the time left to finish the path from the profiled
+     * velocities. Only the generated points are counted for paths that are not
+     * complete
+     * 
+     * @return time left to the end of the path
+     */
+    public double get_remaining_time() {
+        final TrajBuffer points = path.get_buffer();
+        return points.time[points.size - 1] - points.time[Math.min(closestPoint, points.size - 1)];
+    }
+
     /**
      * This method is used to pursuit a point
      * 
@@ -77,114 +310,299 @@ public class PurePursuitController {
      * @return a DriveCommand for the robot to follow
      */
     public DriveCommand pursuit_point(final Point p, final Pose currPose, final double velocity) {
+        return pursuit_point(p, currPose, velocity, new DriveCommand(0, 0));
+    }
+
+    /**
+     * This method is used to pursuit a point without allocating
+     * 
+     * @param p        point to pursuit
+     * @param currPose robot's current pose
+     * @param velocity velocity to pursuit at
+     * @param output   DriveCommand the result is written into
+     * @return the output DriveCommand for the robot to follow
+     */
+    public DriveCommand pursuit_point(final Point p, final Pose currPose, final double velocity,
+            final DriveCommand output) {
         final double arcCurve = get_arc_curvature(p, currPose);
-        return new DriveCommand(velocity * (2 + arcCurve * this.driveCharacterization.trackWidth),
+        arcCurvature = arcCurve;
+        output.copy(velocity * (2 + arcCurve * this.driveCharacterization.trackWidth),
                 velocity * (2 - arcCurve * this.driveCharacterization.trackWidth));
+        return output;
     }
+
+    /**
+     * This method enables recording per-tick metrics
+     * 
+     * @param metrics metrics to record into, or null to disable recording
+     */
+    public void set_metrics(final ControllerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * This method returns the metrics the controller records into
+     * 
+     * @return the metrics, or null if recording is disabled
+     */
+    public ControllerMetrics get_metrics() {
+        return this.metrics;
+    }
+
+    /**
+     * This method limits how many points past the last known closest and
+     * lookahead points are searched on each tick, which bounds the cost of
+     * pursuit_path regardless of path length
+     * 
+     * @param searchWindow max number of points searched per tick
+     */
+    public void set_search_window(final int searchWindow) {
+        this.searchWindow = searchWindow;
+    }
+
     /**
      * This method resets the lookahead IDs and lookup velocites
      */
     public void reset(){
         lookAheadPoint = 0;
+        lookAheadFraction = 0;
         closestPoint = 0;
         isFinished = false;
     }
+    /**
+     * This method lets the path generate points ahead of the robot and release
+     * points behind it. The indices are moved down by the released points, and the
+     * velocities from the closest point on are profiled again when points were
+     * added. A buffer replaced by the path is used as is, keeping the indices,
+     * so a composite path moves to its next part by releasing every point of the
+     * current one
+     * 
+     * @return the points to follow this tick
+     */
+    TrajBuffer advance_path() {
+        final int released = path.advance(closestPoint);
+        if (released != 0) {
+            closestPoint = Math.max(closestPoint - released, 0);
+            if (lookAheadPoint < released) {
+                lookAheadPoint = 0;
+                lookAheadFraction = 0;
+            } else
+                lookAheadPoint -= released;
+        }
+        final TrajBuffer points = path.get_buffer();
+        if (points != profiledBuffer) {
+            profiledBuffer = points;
+            closestPoint = Math.min(closestPoint, points.size - 2);
+            lookAheadPoint = Math.min(lookAheadPoint, points.size - 2);
+        } else if (points.size != profiledSize - released) {
+            points.velocity[points.size - 1] = 0;
+            profiler.profile(points, closestPoint, points.size - 1);
+        }
+        profiledSize = points.size;
+        return points;
+    }
+
     /**
      * This method is used to calculate the curvature of the arc to a lookahead
-     * point
+     * point. It is twice the sideways offset of the point from the heading over
+     * the squared distance to the point, which uses the cached cosine and sine
+     * of the heading and holds at any heading
      * 
      * @param lookAheadPoint the lookahead point
      * @param currPose       robot's current pose
      * @return the curvature of the arc
      */
     double get_arc_curvature(final Point lookAheadPoint, final Pose currPose) {
-        final double a = -Math.tan(currPose.theta);
-        final double c = Math.tan(currPose.theta) * currPose.x - currPose.y;
-        final double x = Math.abs(a * lookAheadPoint.x + lookAheadPoint.y + c) / Math.sqrt(a * a + 1);
-        final int sign = ((Math.sin(currPose.theta) * (lookAheadPoint.x - currPose.x)
-                - Math.cos(currPose.theta) * (lookAheadPoint.y - currPose.y)) > 0) ? 1 : -1;
-        return sign * 2 * x / (Math.pow(currPose.dist(lookAheadPoint), 2));
+        final Rotation r = currPose.get_rotation();
+        final double dx = lookAheadPoint.x - currPose.x;
+        final double dy = lookAheadPoint.y - currPose.y;
+        return 2 * (r.get_sin() * dx - r.get_cos() * dy) / (dx * dx + dy * dy);
     }
 
     /**
-     * This method is used to find the lookahead point on a path
+     * This method is used to find the lookahead point on a path. The lookahead
+     * circle is intersected with the segments between the points, so the point
+     * is interpolated and does not depend on how densely the path is sampled. With
+     * a spatial index, only the segments ending within the longest segment of the
+     * circle are checked. If the end of the path is inside the circle and the
+     * path does not leave it again, the end of the path is used
      * 
-     * @param path              the path the robot follows
+     * @param points            the points of the path the robot follows
+     * @param index             spatial index over the points, or null
      * @param currPose          robot's current pose
      * @param lookAheadDistance lookahead distance of robot
      * @return the point on the path within the lookahead radius. If there is more
      *         than one, the robot chooses the later one on the path
      */
-    TrajPoint get_lookAhead_point(final Path path, final Pose currPose, final double lookAheadDistance) {
-        int ID = lookAheadPoint;
-        final ArrayList<TrajPoint> points = path.get_points(ID);
-        TrajPoint output = points.get(0);
-        for (final TrajPoint p : points) {
-            if ((Math.pow(p.x - currPose.x, 2) + Math.pow(p.y - currPose.y, 2)) <= Math.pow(lookAheadDistance, 2) + 5
-                    && (Math.pow(p.x - currPose.x, 2) + Math.pow(p.y - currPose.y, 2)) >= Math.pow(lookAheadDistance, 2)
-                            - 5) {
-                lookAheadPoint = ID;
-                output = p;
+    Point get_lookAhead_point(final TrajBuffer points, final PathIndex index, final Pose currPose,
+            final double lookAheadDistance) {
+        int end = points.size - 1;
+        if (end - lookAheadPoint > searchWindow)
+            end = lookAheadPoint + searchWindow;
+        final double radius = lookAheadDistance * lookAheadDistance;
+        int segment = -1;
+        double fraction = 0;
+        if (index != null) {
+            final double s = index.get_max_segment();
+            final double inner = Math.max(lookAheadDistance - s, 0);
+            final int last = index.find_last_within(currPose.x, currPose.y, inner * inner,
+                    (lookAheadDistance + s) * (lookAheadDistance + s), lookAheadPoint + 1, end + 1,
+                    lookAheadScanned);
+            for (int i = last - 1; i >= lookAheadPoint && segment == -1; i--) {
+                lookAheadScanned[0]++;
+                fraction = intersect(points, i, currPose, radius);
+                if (fraction >= 0)
+                    segment = i;
+            }
+        } else {
+            lookAheadScanned[0] += Math.max(end - lookAheadPoint, 0);
+            for (int i = lookAheadPoint; i < end; i++) {
+                final double f = intersect(points, i, currPose, radius);
+                if (f >= 0) {
+                    segment = i;
+                    fraction = f;
+                }
             }
-            ID++;
         }
-        return output;
+        if (end == points.size - 1 && is_inside(points, end, currPose, radius)
+                && (segment == -1 || is_inside(points, segment + 1, currPose, radius))) {
+            segment = end - 1;
+            fraction = 1;
+        }
+        lookAheadFound = segment != -1;
+        if (lookAheadFound) {
+            lookAheadPoint = segment;
+            lookAheadFraction = fraction;
+        }
+        final int i = lookAheadPoint;
+        final double f = lookAheadFraction;
+        lookAhead.copy(points.x[i] + f * (points.x[i + 1] - points.x[i]),
+                points.y[i] + f * (points.y[i + 1] - points.y[i]));
+        return lookAhead;
+    }
+
+    /**
+     * This method tells whether a point is inside a circle around the robot
+     * 
+     * @param points   the points of the path the robot follows
+     * @param i        index of the point
+     * @param currPose robot's current pose, the center of the circle
+     * @param radius   squared radius of the circle
+     * @return a boolean of whether the point is inside the circle
+     */
+    static boolean is_inside(final TrajBuffer points, final int i, final Pose currPose, final double radius) {
+        final double dx = points.x[i] - currPose.x;
+        final double dy = points.y[i] - currPose.y;
+        return dx * dx + dy * dy < radius;
+    }
+
+    /**
+     * This method interpolates the lookup velocity at the robot's projection onto
+     * the segment after the closest point, so the velocity changes smoothly even
+     * when the points are far apart
+     * 
+     * @param points   the points of the path the robot follows
+     * @param i        index of the closest point
+     * @param currPose robot's current pose
+     * @return lookup velocity at the robot
+     */
+    static double get_velocity(final TrajBuffer points, final int i, final Pose currPose) {
+        final double[] velocity = points.velocity;
+        if (i >= points.size - 1)
+            return velocity[i];
+        final double dx = points.x[i + 1] - points.x[i];
+        final double dy = points.y[i + 1] - points.y[i];
+        final double a = dx * dx + dy * dy;
+        if (a == 0)
+            return velocity[i];
+        final double f = ((currPose.x - points.x[i]) * dx + (currPose.y - points.y[i]) * dy) / a;
+        return velocity[i] + Math.max(0, Math.min(1, f)) * (velocity[i + 1] - velocity[i]);
+    }
+
+    /**
+     * This method intersects a circle around the robot with the segment from a
+     * point to the next one
+     * 
+     * @param points   the points of the path the robot follows
+     * @param i        index of the first point of the segment
+     * @param currPose robot's current pose, the center of the circle
+     * @param radius   squared radius of the circle
+     * @return the fraction of the way along the segment of the later
+     *         intersection, or -1 if the segment does not cross the circle
+     */
+    static double intersect(final TrajBuffer points, final int i, final Pose currPose, final double radius) {
+        final double dx = points.x[i + 1] - points.x[i];
+        final double dy = points.y[i + 1] - points.y[i];
+        final double fx = points.x[i] - currPose.x;
+        final double fy = points.y[i] - currPose.y;
+        final double a = dx * dx + dy * dy;
+        final double b = fx * dx + fy * dy;
+        final double c = fx * fx + fy * fy - radius;
+        final double discriminant = b * b - a * c;
+        if (a == 0 || discriminant < 0)
+            return -1;
+        final double root = Math.sqrt(discriminant);
+        final double later = (-b + root) / a;
+        if (later >= 0 && later <= 1)
+            return later;
+        final double earlier = (-b - root) / a;
+        return (earlier >= 0 && earlier <= 1) ? earlier : -1;
     }
 
     /**
      * This method finds the closest point on the path to the robot
      * 
-     * @param path     the path the robot follows
+     * @param points   the points of the path the robot follows
+     * @param index    spatial index over the points, or null
      * @param currPose robot's current pose
-     * @return the point on the path which is closest to the robot
-     */
-    TrajPoint get_closest_point(final Path path, final Pose currPose) {
-        int ID = closestPoint;
-        final ArrayList<TrajPoint> points = path.get_points(ID);
-        TrajPoint output = points.get(0);
-        double dist = currPose.dist(output);
-        for (final TrajPoint p : points) {
-            if (currPose.dist(p) < dist) {
-                closestPoint = ID;
-                dist = currPose.dist(p);
-                output = p;
+     * @return the index of the point on the path which is closest to the robot
+     */
+    int get_closest_point(final TrajBuffer points, final PathIndex index, final Pose currPose) {
+        int end = points.size - 1;
+        if (end - closestPoint > searchWindow)
+            end = closestPoint + searchWindow;
+        if (index != null) {
+            final int i = index.find_closest(currPose.x, currPose.y, closestPoint, end, closestScanned);
+            if (i != -1)
+                closestPoint = i;
+            return closestPoint;
+        }
+        final double[] x = points.x;
+        final double[] y = points.y;
+        closestScanned[0] += Math.max(end - closestPoint, 0);
+        double dist = Double.MAX_VALUE;
+        for (int i = closestPoint; i < end; i++) {
+            final double dx = x[i] - currPose.x;
+            final double dy = y[i] - currPose.y;
+            if (dx * dx + dy * dy < dist) {
+                closestPoint = i;
+                dist = dx * dx + dy * dy;
             }
-            ID++;
         }
-        return output;
+        return closestPoint;
     }
 
     /**
-     * This method is used to calculate the lookup velocites at each trajectory
-     * point
+     * This method calculates the lookup velocities of a path unless they were
+     * already profiled for the given drive characterization
      * 
+     * @param path                  path to profile
      * @param driveCharacterization characterization of the drivetrain
-     * @param points                arraylist of points to set velocites for
-     */
-    void calc_velocity(final DriveCharacterization driveCharacterization, final ArrayList<TrajPoint> points) {
-        for (int i = 1; i < points.size() - 1; i++) {
-            if (points.get(i).curvature == 0)
-                points.get(i).velocity = driveCharacterization.maxVelocity;
-            else if (driveCharacterization.maxVelocity / (points.get(i).curvature * 50) < driveCharacterization.maxVelocity)
-                points.get(i).velocity = driveCharacterization.maxVelocity / (points.get(i).curvature * 50);
-            else
-                points.get(i).velocity = driveCharacterization.maxVelocity;
-        }
-        points.get(0).velocity = 0;
-        points.get(points.size() - 1).velocity = 0;
-        double plausVel = 0;
-        for (int i = 1; i < points.size() - 1; i++) {
-            plausVel = Math.sqrt(Math.pow(points.get(i - 1).velocity, 2)
-                    + 2 * driveCharacterization.maxAcceleration * points.get(i).dist(points.get(i - 1)));
-            if (plausVel < points.get(i).velocity)
-                points.get(i).velocity = plausVel;
-        }
-        for (int i = points.size() - 2; i > 0; i--) {
-            plausVel = Math.sqrt(Math.pow(points.get(i + 1).velocity, 2)
-                    + 2 * driveCharacterization.maxAcceleration * points.get(i).dist(points.get(i + 1)));
-            if (plausVel < points.get(i).velocity)
-                points.get(i).velocity = plausVel;
-        }
-        points.get(0).velocity = points.get(1).velocity;
+     */
+    public static void profile(final Path path, final DriveCharacterization driveCharacterization) {
+        profile(path, new VelocityProfiler(driveCharacterization));
+    }
+
+    /**
+     * This method calculates the lookup velocities of a path unless they were
+     * already profiled by an equal profiler
+     * 
+     * @param path     path to profile
+     * @param profiler profiler to calculate the velocities with
+     */
+    public static void profile(final Path path, final VelocityProfiler profiler) {
+        if (profiler.equals(path.get_profiler()))
+            return;
+        path.profile(profiler);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package raiderlib.control;
+
+/**
+ * This class is used to limit the velocity of the robot inside a rectangular
+ * region of the field
+ */
+public class RegionConstraint implements VelocityConstraint {
+
+    final double minX, minY;
+    final double maxX, maxY;
+    final double maxVelocity;
+
+    /**
+     * Constructor for RegionConstraint class
+     * 
+     * @param minX        smallest x coordinate of the region
+     * @param minY        smallest y coordinate of the region
+     * @param maxX        largest x coordinate of the region
+     * @param maxY        largest y coordinate of the region
+     * @param maxVelocity max velocity inside the region
+     */
+    public RegionConstraint(final double minX, final double minY, final double maxX, final double maxY,
+            final double maxVelocity) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxVelocity = maxVelocity;
+    }
+
+    @Override
+    public double get_max_velocity(final double x, final double y, final double curvature) {
+        return (x >= minX && x <= maxX && y >= minY && y <= maxY) ? maxVelocity : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof RegionConstraint))
+            return false;
+        final RegionConstraint c = (RegionConstraint) o;
+        return Double.compare(minX, c.minX) == 0 && Double.compare(minY, c.minY) == 0
+                && Double.compare(maxX, c.maxX) == 0 && Double.compare(maxY, c.maxY) == 0
+                && Double.compare(maxVelocity, c.maxVelocity) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Double.hashCode(minX);
+        hash = 31 * hash + Double.hashCode(minY);
+        hash = 31 * hash + Double.hashCode(maxX);
+        hash = 31 * hash + Double.hashCode(maxY);
+        return 31 * hash + Double.hashCode(maxVelocity);
+    }
+}
@@ -0,0 +1,21 @@
+package raiderlib.control;
+
+/**
+ * This interface is used as a limit on the velocity at each trajectory point
+ * of a path. To create your own constraint, implement this interface and pass
+ * it to a VelocityProfiler
+ */
+public interface VelocityConstraint {
+
+    /**
+     * This method returns the max velocity the robot may drive at a trajectory
+     * point
+     * 
+     * @param x         x coordinate of the point
+     * @param y         y coordinate of the point
+     * @param curvature lookup curvature of the point
+     * @return max velocity at the point, or Double.POSITIVE_INFINITY if the point
+     *         is not limited
+     */
+    double get_max_velocity(double x, double y, double curvature);
+}
@@ -0,0 +1,139 @@
+package raiderlib.control;
+
+import java.util.Arrays;
+
+import raiderlib.path.TrajBuffer;
+
+/**
+ * This class is used to calculate the lookup velocities of a path. Each point
+ * is limited by the max velocity of the drivetrain and by every constraint,
+ * and the robot speeds up and slows down at no more than the max acceleration.
+ * One forward pass applies the constraints and the acceleration limit, and one
+ * backward pass applies the deceleration limit
+ */
+public class VelocityProfiler {
+
+    final DriveCharacterization driveCharacterization;
+    final VelocityConstraint[] constraints;
+
+    /**
+     * Constructor for VelocityProfiler class with the curve limit the controller
+     * has always used
+     * 
+     * @param driveCharacterization characterization of the drivetrain
+     */
+    public VelocityProfiler(final DriveCharacterization driveCharacterization) {
+        this(driveCharacterization, new CurvatureConstraint(driveCharacterization.maxVelocity, 50));
+    }
+
+    /**
+     * Constructor for VelocityProfiler class
+     * 
+     * @param driveCharacterization characterization of the drivetrain
+     * @param constraints           constraints on the velocity of each point
+     */
+    public VelocityProfiler(final DriveCharacterization driveCharacterization,
+            final VelocityConstraint... constraints) {
+        this.driveCharacterization = driveCharacterization;
+        this.constraints = constraints.clone();
+    }
+
+    /**
+     * This method calculates the lookup velocities of every point of a path,
+     * along with the cumulative distance and time of each point. The path starts
+     * and ends at rest
+     * 
+     * @param points buffer of points to set velocities for
+     */
+    public void profile(final TrajBuffer points) {
+        final double[] velocity = points.velocity;
+        velocity[0] = 0;
+        velocity[points.size - 1] = 0;
+        calc_velocity(points, 0, points.size - 1);
+        velocity[0] = velocity[1];
+        points.distance[0] = 0;
+        points.time[0] = 0;
+        points.calc_time(0);
+    }
+
+    /**
+     * This method calculates the lookup velocities of the points between two
+     * points of a path, keeping the velocities of those two points. If both are
+     * at least maxVelocity^2 / (2 * maxAcceleration) away from any changed point,
+     * the result is the same as profiling the whole path again. The cumulative
+     * distance and time are updated from the first point to the end of the path
+     * 
+     * @param points buffer of points to set velocities for
+     * @param from   index of the first point, its velocity is kept
+     * @param to     index of the last point, its velocity is kept
+     */
+    public void profile(final TrajBuffer points, final int from, final int to) {
+        calc_velocity(points, from, to);
+        points.calc_time(from);
+    }
+
+    /**
+     * This method runs the forward and backward passes between two points
+     * 
+     * @param points buffer of points to set velocities for
+     * @param from   index of the first point, its velocity is kept
+     * @param to     index of the last point, its velocity is kept
+     */
+    void calc_velocity(final TrajBuffer points, final int from, final int to) {
+        final double[] x = points.x;
+        final double[] y = points.y;
+        final double[] curvature = points.curvature;
+        final double[] velocity = points.velocity;
+        final double maxAcceleration = driveCharacterization.maxAcceleration;
+        for (int i = from + 1; i < to; i++) {
+            final double limit = get_max_velocity(x[i], y[i], curvature[i]);
+            final double plausVel = Math.sqrt(velocity[i - 1] * velocity[i - 1]
+                    + 2 * maxAcceleration * points.dist(i, i - 1));
+            velocity[i] = (plausVel < limit) ? plausVel : limit;
+        }
+        for (int i = to - 1; i > from; i--) {
+            final double plausVel = Math.sqrt(velocity[i + 1] * velocity[i + 1]
+                    + 2 * maxAcceleration * points.dist(i, i + 1));
+            if (plausVel < velocity[i])
+                velocity[i] = plausVel;
+        }
+    }
+
+    /**
+     * This method returns the fastest the robot may drive through a point, from
+     * the max velocity of the drivetrain and every constraint
+     * 
+     * @param x         x coordinate of the point
+     * @param y         y coordinate of the point
+     * @param curvature curvature of the path at the point
+     * @return max velocity at the point
+     */
+    public double get_max_velocity(final double x, final double y, final double curvature) {
+        double limit = driveCharacterization.maxVelocity;
+        for (final VelocityConstraint constraint : constraints)
+            limit = Math.min(limit, constraint.get_max_velocity(x, y, curvature));
+        return limit;
+    }
+
+    /**
+     * This method returns the drive characterization of the profiler
+     * 
+     * @return characterization of the drivetrain
+     */
+    public DriveCharacterization get_drive_characterization() {
+        return this.driveCharacterization;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof VelocityProfiler))
+            return false;
+        final VelocityProfiler p = (VelocityProfiler) o;
+        return driveCharacterization.equals(p.driveCharacterization) && Arrays.equals(constraints, p.constraints);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * driveCharacterization.hashCode() + Arrays.hashCode(constraints);
+    }
+}
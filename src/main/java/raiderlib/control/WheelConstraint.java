@@ -0,0 +1,51 @@
+package raiderlib.control;
+
+/**
+ * This class is used to keep the outer wheel of a differential drive under its
+ * max velocity in turns. The controller commands the outer wheel at v * (2 +
+ * curvature * trackWidth), twice the usual v * (1 + curvature * trackWidth /
+ * 2), so the profiled velocity is limited to half of what the wheel allows
+ */
+public class WheelConstraint implements VelocityConstraint {
+
+    final double maxVelocity;
+    final double trackWidth;
+
+    /**
+     * Constructor for WheelConstraint class
+     * 
+     * @param driveCharacterization characterization of the drivetrain
+     */
+    public WheelConstraint(final DriveCharacterization driveCharacterization) {
+        this(driveCharacterization.maxVelocity, driveCharacterization.trackWidth);
+    }
+
+    /**
+     * Constructor for WheelConstraint class
+     * 
+     * @param maxVelocity max velocity of each wheel
+     * @param trackWidth  trackWidth of robot
+     */
+    public WheelConstraint(final double maxVelocity, final double trackWidth) {
+        this.maxVelocity = maxVelocity;
+        this.trackWidth = trackWidth;
+    }
+
+    @Override
+    public double get_max_velocity(final double x, final double y, final double curvature) {
+        return maxVelocity / (2 + Math.abs(curvature) * trackWidth);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof WheelConstraint))
+            return false;
+        final WheelConstraint c = (WheelConstraint) o;
+        return Double.compare(maxVelocity, c.maxVelocity) == 0 && Double.compare(trackWidth, c.trackWidth) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(maxVelocity) + Double.hashCode(trackWidth);
+    }
+}
@@ -0,0 +1,157 @@
+package raiderlib.geometry;
+
+import raiderlib.control.DriveCharacterization;
+
+/**
+ * This class is used to estimate the robot's position from encoder deltas
+ * without allocating. The pose is kept as primitives and updated by one writer
+ * thread, one sample or a batch of samples at a time. After each update the
+ * pose is published through a SharedPose, so other threads copy the latest
+ * pose with get_pose or get_shared_pose, which never block the writer
+ */
+public class Odometry {
+
+    final double trackWidth;
+    final boolean exactArc;
+    final SharedPose shared = new SharedPose(0, 0, 0);
+    double x;
+    double y;
+    double theta;
+    final Rotation heading = new Rotation(0);
+
+    /**
+     * Constructor for Odometry class using the midpoint heading approximation
+     * 
+     * @param driveCharacterization drive characterization
+     */
+    public Odometry(final DriveCharacterization driveCharacterization) {
+        this(driveCharacterization.trackWidth, false);
+    }
+
+    /**
+     * Constructor for Odometry class
+     * 
+     * @param trackWidth trackWidth of robot
+     * @param exactArc   whether to integrate each sample as an exact circular
+     *                   arc instead of a straight step at the midpoint heading
+     */
+    public Odometry(final double trackWidth, final boolean exactArc) {
+        this.trackWidth = trackWidth;
+        this.exactArc = exactArc;
+    }
+
+    /**
+     * This method sets the pose of the robot. It should be called from the writer
+     * thread
+     * 
+     * @param x     x coordinate
+     * @param y     y coordinate
+     * @param theta heading in radians
+     */
+    public void reset(final double x, final double y, final double theta) {
+        this.x = x;
+        this.y = y;
+        this.theta = theta;
+        this.heading.set(theta);
+        shared.set(x, y, theta);
+    }
+
+    /**
+     * This method updates the pose with one encoder sample, taking the change in
+     * heading from the encoders
+     * 
+     * @param deltaLeft  distance left side has traveled
+     * @param deltaRight distance right side has traveled
+     */
+    public void update(final double deltaLeft, final double deltaRight) {
+        integrate(deltaLeft, deltaRight, (deltaRight - deltaLeft) / trackWidth);
+        shared.set(x, y, theta);
+    }
+
+    /**
+     * This method updates the pose with one encoder sample and a gyro reading
+     * 
+     * @param deltaLeft  distance left side has traveled
+     * @param deltaRight distance right side has traveled
+     * @param gyro       gyro reading(in radians)
+     */
+    public void update(final double deltaLeft, final double deltaRight, final double gyro) {
+        integrate(deltaLeft, deltaRight, gyro - theta);
+        shared.set(x, y, theta);
+    }
+
+    /**
+     * This method updates the pose with a batch of encoder samples, taking the
+     * change in heading from the encoders. Readers see the pose after the whole
+     * batch
+     * 
+     * @param deltaLeft  distances left side has traveled
+     * @param deltaRight distances right side has traveled
+     * @param count      number of samples to integrate
+     */
+    public void update(final double[] deltaLeft, final double[] deltaRight, final int count) {
+        for (int i = 0; i < count; i++)
+            integrate(deltaLeft[i], deltaRight[i], (deltaRight[i] - deltaLeft[i]) / trackWidth);
+        shared.set(x, y, theta);
+    }
+
+    /**
+     * This method updates the pose with a batch of encoder samples and gyro
+     * readings. Readers see the pose after the whole batch
+     * 
+     * @param deltaLeft  distances left side has traveled
+     * @param deltaRight distances right side has traveled
+     * @param gyro       gyro readings(in radians)
+     * @param count      number of samples to integrate
+     */
+    public void update(final double[] deltaLeft, final double[] deltaRight, final double[] gyro,
+            final int count) {
+        for (int i = 0; i < count; i++)
+            integrate(deltaLeft[i], deltaRight[i], gyro[i] - theta);
+        shared.set(x, y, theta);
+    }
+
+    /**
+     * This method moves the pose by one sample. The midpoint mode steps straight
+     * along the heading halfway through the turn. The exact mode steps along the
+     * chord of the arc, which is shorter than the arc by sin(h) / h for half turn
+     * h
+     * 
+     * @param deltaLeft  distance left side has traveled
+     * @param deltaRight distance right side has traveled
+     * @param deltaTheta change in heading in radians
+     */
+    void integrate(final double deltaLeft, final double deltaRight, final double deltaTheta) {
+        double deltaDistance = (deltaLeft + deltaRight) / 2;
+        final double half = deltaTheta / 2;
+        if (exactArc)
+            deltaDistance *= (Math.abs(half) < 1e-4) ? 1 - half * half / 6 : Math.sin(half) / half;
+        heading.rotate(half);
+        this.x += deltaDistance * heading.cos;
+        this.y += deltaDistance * heading.sin;
+        heading.rotate(half);
+        this.theta += deltaTheta;
+        heading.theta = this.theta;
+    }
+
+    /**
+     * This method copies the latest pose into a given pose. It can be called from
+     * any thread
+     * 
+     * @param out pose the latest pose is copied into
+     * @return the out pose
+     */
+    public Pose get_pose(final Pose out) {
+        return shared.get(out);
+    }
+
+    /**
+     * This method returns the shared pose the latest pose is published through,
+     * for example to pass to PurePursuitController.pursuit_path
+     * 
+     * @return the shared pose
+     */
+    public SharedPose get_shared_pose() {
+        return shared;
+    }
+}
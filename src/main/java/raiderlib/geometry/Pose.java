@@ -7,6 +7,7 @@ import raiderlib.control.DriveCharacterization;
  */
 public class Pose extends Point {
     public double theta;
+    Rotation rotation;
 
     /**
      * Constructor for Pose class
@@ -20,6 +21,33 @@ public class Pose extends Point {
         this.theta = theta;
     }
 
+    /**
+     * Constructor for Pose class
+     * 
+     * @param x        x coordinate
+     * @param y        y coordinate
+     * @param rotation heading of the pose
+     */
+    public Pose(final double x, final double y, final Rotation rotation) {
+        super(x, y);
+        this.theta = rotation.theta;
+        this.rotation = new Rotation(rotation);
+    }
+
+    /**
+     * This method returns the heading of the pose with its cosine and sine. They
+     * are only calculated again when theta has changed since the last call
+     * 
+     * @return rotation of the pose, it is reused by later calls
+     */
+    public Rotation get_rotation() {
+        if (rotation == null)
+            rotation = new Rotation(theta);
+        else if (rotation.theta != theta)
+            rotation.set(theta);
+        return rotation;
+    }
+
     /**
      * This method is used to add a given pose
      * 
@@ -44,11 +72,7 @@ public class Pose extends Point {
     public Pose update(DriveCharacterization driveCharacterization, double deltaLeft, double deltaRight) {
         double deltaDistance = (deltaLeft + deltaRight) / 2;
         double deltaTheta = (deltaRight - deltaLeft) / driveCharacterization.trackWidth;
-        double dx = deltaDistance * Math.cos(this.theta + deltaTheta / 2);
-        double dy = deltaDistance * Math.sin(this.theta + deltaTheta / 2);
-        this.x += dx;
-        this.y += dy;
-        this.theta += deltaTheta;
+        move(deltaDistance, deltaTheta);
         return new Pose(this.x, this.y, this.theta);
     }
 
@@ -63,12 +87,26 @@ public class Pose extends Point {
     public Pose update(double gyro, double deltaLeft, double deltaRight) {
         double deltaDistance = (deltaLeft + deltaRight) / 2;
         double deltaTheta = gyro - this.theta;
-        double dx = deltaDistance * Math.cos(this.theta + deltaTheta / 2);
-        double dy = deltaDistance * Math.sin(this.theta + deltaTheta / 2);
-        this.x += dx;
-        this.y += dy;
-        this.theta += deltaTheta;
+        move(deltaDistance, deltaTheta);
         return new Pose(this.x, this.y, this.theta);
     }
 
+    /**
+     * This method moves the pose straight along the heading halfway through a
+     * turn and then turns it. The rotation is turned in two halves, so small
+     * turns do not call the trigonometric functions
+     * 
+     * @param deltaDistance distance traveled
+     * @param deltaTheta    change in heading in radians
+     */
+    void move(final double deltaDistance, final double deltaTheta) {
+        final Rotation r = get_rotation();
+        r.rotate(deltaTheta / 2);
+        this.x += deltaDistance * r.cos;
+        this.y += deltaDistance * r.sin;
+        r.rotate(deltaTheta / 2);
+        this.theta += deltaTheta;
+        r.theta = this.theta;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,218 @@
+package raiderlib.geometry;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * This class is used to remember the recent poses of the robot so late
+ * measurements, like vision, can be matched with where the robot was when they
+ * were taken. The poses are kept in a fixed ring of primitive arrays, so adding
+ * and looking up poses never allocates. One writer thread adds and corrects
+ * poses, and any number of threads look them up without blocking the writer
+ */
+public class PoseHistory {
+
+    final StampedLock lock = new StampedLock();
+    final double[] time;
+    final double[] x;
+    final double[] y;
+    final double[] theta;
+    int start;
+    int count;
+
+    /**
+     * Constructor for PoseHistory class
+     * 
+     * @param capacity number of poses kept, the oldest pose is dropped when a
+     *                 pose is added to a full history
+     */
+    public PoseHistory(final int capacity) {
+        time = new double[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        theta = new double[capacity];
+    }
+
+    /**
+     * This method adds the newest pose of the robot
+     * 
+     * @param timestamp time of the pose, later than every pose in the history
+     * @param x         x coordinate
+     * @param y         y coordinate
+     * @param theta     heading in radians
+     */
+    public void add(final double timestamp, final double x, final double y, final double theta) {
+        if (count > 0 && timestamp <= time[index(count - 1)])
+            throw new IllegalArgumentException("poses must be added in time order");
+        final long stamp = lock.writeLock();
+        final int i;
+        if (count == time.length) {
+            i = start;
+            start = index(1);
+        } else
+            i = index(count++);
+        this.time[i] = timestamp;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.theta[i] = theta;
+        lock.unlockWrite(stamp);
+    }
+
+    /**
+     * This method adds the newest pose of the robot
+     * 
+     * @param timestamp time of the pose, later than every pose in the history
+     * @param pose      pose of the robot
+     */
+    public void add(final double timestamp, final Pose pose) {
+        add(timestamp, pose.x, pose.y, pose.theta);
+    }
+
+    /**
+     * This method finds the pose of the robot at a past time, interpolating
+     * between the poses around it. It can be called from any thread
+     * 
+     * @param timestamp time to look up, times after the newest pose give the
+     *                  newest pose
+     * @param out       pose the result is written into
+     * @return a boolean of whether the time is in the history, out is not changed
+     *         if it is not
+     */
+    public boolean get_pose(final double timestamp, final Pose out) {
+        while (true) {
+            final long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                final int count = this.count;
+                boolean found = false;
+                double px = 0, py = 0, ptheta = 0;
+                if (count > 0 && timestamp >= time[index(0)]) {
+                    final int k = find(timestamp, count);
+                    final int i = index(k);
+                    px = x[i];
+                    py = y[i];
+                    ptheta = theta[i];
+                    if (k < count - 1) {
+                        final int j = index(k + 1);
+                        final double f = (timestamp - time[i]) / (time[j] - time[i]);
+                        px += f * (x[j] - px);
+                        py += f * (y[j] - py);
+                        ptheta += f * (theta[j] - ptheta);
+                    }
+                    found = true;
+                }
+                if (lock.validate(stamp)) {
+                    if (found) {
+                        out.x = px;
+                        out.y = py;
+                        out.theta = ptheta;
+                    }
+                    return found;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * This method copies the newest pose into a given pose. It can be called from
+     * any thread
+     * 
+     * @param out pose the newest pose is written into
+     * @return a boolean of whether the history has any poses
+     */
+    public boolean get_latest(final Pose out) {
+        return get_pose(Double.POSITIVE_INFINITY, out);
+    }
+
+    /**
+     * This method corrects the pose of the robot at a past time, for example from
+     * a vision measurement. The odometry moves recorded after that time are
+     * replayed from the corrected pose, so every later pose keeps its position
+     * relative to the corrected one. Poses before that time are not changed.
+     * Reset the odometry to the newest pose afterwards
+     * 
+     * @param timestamp time the correct pose was measured at
+     * @param x         correct x coordinate
+     * @param y         correct y coordinate
+     * @param theta     correct heading in radians
+     * @return a boolean of whether the time is in the history, nothing is changed
+     *         if it is not
+     */
+    public boolean correct(final double timestamp, final double x, final double y, final double theta) {
+        if (count == 0 || timestamp < time[index(0)])
+            return false;
+        final long stamp = lock.writeLock();
+        final int k = find(timestamp, count);
+        int i = index(k);
+        double ox = this.x[i], oy = this.y[i], otheta = this.theta[i];
+        if (k < count - 1) {
+            final int j = index(k + 1);
+            final double f = (timestamp - time[i]) / (time[j] - time[i]);
+            ox += f * (this.x[j] - ox);
+            oy += f * (this.y[j] - oy);
+            otheta += f * (this.theta[j] - otheta);
+        }
+        final double turn = theta - otheta;
+        final double cos = Math.cos(turn);
+        final double sin = Math.sin(turn);
+        for (int n = (time[i] < timestamp) ? k + 1 : k; n < count; n++) {
+            i = index(n);
+            final double dx = this.x[i] - ox;
+            final double dy = this.y[i] - oy;
+            this.x[i] = x + dx * cos - dy * sin;
+            this.y[i] = y + dx * sin + dy * cos;
+            this.theta[i] += turn;
+        }
+        lock.unlockWrite(stamp);
+        return true;
+    }
+
+    /**
+     * This method removes every pose from the history
+     */
+    public void clear() {
+        final long stamp = lock.writeLock();
+        start = 0;
+        count = 0;
+        lock.unlockWrite(stamp);
+    }
+
+    /**
+     * This method returns the number of poses in the history
+     * 
+     * @return number of poses
+     */
+    public int get_size() {
+        return count;
+    }
+
+    /**
+     * This method finds the newest pose at or before a time with a binary search
+     * 
+     * @param timestamp time to search for, not before the oldest pose
+     * @param count     number of poses in the history
+     * @return position of the pose from the oldest pose
+     */
+    int find(final double timestamp, final int count) {
+        int low = 0, high = count - 1;
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if (time[index(mid)] <= timestamp)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    /**
+     * This method converts a position from the oldest pose to an index in the
+     * arrays
+     * 
+     * @param n position from the oldest pose
+     * @return index in the arrays
+     */
+    int index(final int n) {
+        final int i = start + n;
+        return (i >= time.length) ? i - time.length : i;
+    }
+}
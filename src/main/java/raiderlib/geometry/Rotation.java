@@ -0,0 +1,134 @@
+package raiderlib.geometry;
+
+/**
+ * This class is used to represent a heading along with its cosine and sine, so
+ * code that needs them does not call the trigonometric functions again.
+ * Rotating by another rotation only uses multiplications and additions
+ */
+public class Rotation {
+
+    /**
+     * Largest angle rotated by with a polynomial instead of Math.cos and Math.sin,
+     * below it the polynomial is exact to double precision
+     */
+    static final double SMALL_ANGLE = 1e-2;
+
+    double theta;
+    double cos;
+    double sin;
+
+    /**
+     * Constructor for Rotation class
+     * 
+     * @param theta heading in radians
+     */
+    public Rotation(final double theta) {
+        set(theta);
+    }
+
+    /**
+     * Constructor for Rotation class from a copy of another rotation
+     * 
+     * @param r rotation copied
+     */
+    public Rotation(final Rotation r) {
+        set(r);
+    }
+
+    /**
+     * This method sets the heading of the rotation
+     * 
+     * @param theta heading in radians
+     * @return this rotation
+     */
+    public Rotation set(final double theta) {
+        this.theta = theta;
+        this.cos = Math.cos(theta);
+        this.sin = Math.sin(theta);
+        return this;
+    }
+
+    /**
+     * This method copies a given rotation into the rotation
+     * 
+     * @param r rotation copied
+     * @return this rotation
+     */
+    public Rotation set(final Rotation r) {
+        this.theta = r.theta;
+        this.cos = r.cos;
+        this.sin = r.sin;
+        return this;
+    }
+
+    /**
+     * This method rotates the rotation by a given rotation
+     * 
+     * @param r rotation added
+     * @return this rotation
+     */
+    public Rotation rotate(final Rotation r) {
+        return rotate(r.theta, r.cos, r.sin);
+    }
+
+    /**
+     * This method rotates the rotation by an angle. Small angles, like the turn of
+     * one odometry sample, are rotated by without calling Math.cos and Math.sin
+     * 
+     * @param angle angle added in radians
+     * @return this rotation
+     */
+    public Rotation rotate(final double angle) {
+        if (Math.abs(angle) >= SMALL_ANGLE)
+            return rotate(angle, Math.cos(angle), Math.sin(angle));
+        final double a2 = angle * angle;
+        return rotate(angle, 1 - a2 / 2 * (1 - a2 / 12 * (1 - a2 / 30)),
+                angle * (1 - a2 / 6 * (1 - a2 / 20 * (1 - a2 / 42))));
+    }
+
+    /**
+     * This method rotates the rotation by an angle with a known cosine and sine.
+     * The result is scaled back to unit length so rounding does not build up
+     * 
+     * @param angle angle added in radians
+     * @param cos   cosine of the angle
+     * @param sin   sine of the angle
+     * @return this rotation
+     */
+    Rotation rotate(final double angle, final double cos, final double sin) {
+        final double c = this.cos * cos - this.sin * sin;
+        final double s = this.sin * cos + this.cos * sin;
+        final double scale = (3 - (c * c + s * s)) / 2;
+        this.theta += angle;
+        this.cos = c * scale;
+        this.sin = s * scale;
+        return this;
+    }
+
+    /**
+     * This method returns the heading of the rotation
+     * 
+     * @return heading in radians
+     */
+    public double get_theta() {
+        return this.theta;
+    }
+
+    /**
+     * This method returns the cosine of the heading
+     * 
+     * @return cosine of the heading
+     */
+    public double get_cos() {
+        return this.cos;
+    }
+
+    /**
+     * This method returns the sine of the heading
+     * 
+     * @return sine of the heading
+     */
+    public double get_sin() {
+        return this.sin;
+    }
+}
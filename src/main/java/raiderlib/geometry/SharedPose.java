@@ -0,0 +1,79 @@
+package raiderlib.geometry;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * This class is used to pass the robot's pose from a sensor thread to other
+ * threads. One thread sets the pose and any number of threads copy it. Readers
+ * never see a pose that is half written and never block the writer
+ */
+public class SharedPose {
+
+    final StampedLock lock = new StampedLock();
+    double x;
+    double y;
+    double theta;
+
+    /**
+     * Constructor for SharedPose class
+     * 
+     * @param x     x coordinate
+     * @param y     y coordinate
+     * @param theta heading in radians
+     */
+    public SharedPose(final double x, final double y, final double theta) {
+        this.x = x;
+        this.y = y;
+        this.theta = theta;
+    }
+
+    /**
+     * This method sets the pose. It should only be called from one thread
+     * 
+     * @param x     x coordinate
+     * @param y     y coordinate
+     * @param theta heading in radians
+     */
+    public void set(final double x, final double y, final double theta) {
+        final long stamp = lock.writeLock();
+        this.x = x;
+        this.y = y;
+        this.theta = theta;
+        lock.unlockWrite(stamp);
+    }
+
+    /**
+     * This method sets the pose to a copy of a given pose. It should only be
+     * called from one thread
+     * 
+     * @param p pose copied
+     */
+    public void set(final Pose p) {
+        set(p.x, p.y, p.theta);
+    }
+
+    /**
+     * This method copies the pose into a given pose. It can be called from any
+     * thread
+     * 
+     * @param out pose the shared pose is copied into
+     * @return the out pose
+     */
+    public Pose get(final Pose out) {
+        while (true) {
+            final long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                final double x = this.x;
+                final double y = this.y;
+                final double theta = this.theta;
+                if (lock.validate(stamp)) {
+                    out.x = x;
+                    out.y = y;
+                    out.theta = theta;
+                    return out;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package raiderlib.path;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import raiderlib.control.DriveCharacterization;
+import raiderlib.control.VelocityProfiler;
+
+/**
+ * This class is used to follow a sequence of paths as one path, so a routine
+ * does not need a new controller for each part. The parts keep their own
+ * points, nothing is copied, and the controller follows one part at a time.
+ * When the distance left along a part is within the handoff distance, the next
+ * part replaces it, which costs the same no matter how long the parts are.
+ * Indices given to and returned by the controller are in the current part, add
+ * get_offset to get the index in the whole sequence. Until the robot reaches
+ * the next part its closest point is the first point of that part. The parts
+ * belong to the composite path and should not be followed on their own while
+ * it is in use
+ * 
+ * With blending, the robot does not stop between parts. Each join is given the
+ * fastest velocity allowed at both of its points, scaled by the cosine of the
+ * turn between the parts, so a corner slows the robot down and a reversal
+ * stops it
+ */
+public class CompositePath extends Path {
+
+    final Path[] parts;
+    final int[] offsets;
+    final double handoffDistance;
+    final boolean blend;
+    int part;
+
+    /**
+     * Constructor for CompositePath class
+     * 
+     * @param parts           paths to follow in order, all of their points must
+     *                        be generated
+     * @param handoffDistance distance left along a part at which the next part
+     *                        is followed, around the lookahead distance works
+     *                        well
+     * @param blend           whether the robot keeps moving between parts
+     *                        instead of stopping at the end of each
+     */
+    public CompositePath(final List<Path> parts, final double handoffDistance, final boolean blend) {
+        super(new ArrayList<>(), parts.get(0).get_buffer(), null);
+        this.parts = parts.toArray(new Path[0]);
+        this.offsets = new int[this.parts.length + 1];
+        this.handoffDistance = handoffDistance;
+        this.blend = blend;
+        for (int i = 0; i < this.parts.length; i++) {
+            if (!this.parts[i].is_complete())
+                throw new IllegalArgumentException("the parts of a composite path must be complete");
+            this.waypoints.addAll(this.parts[i].waypoints);
+            offsets[i + 1] = offsets[i] + this.parts[i].get_buffer().size;
+        }
+    }
+
+    @Override
+    public int advance(final int closestPoint) {
+        final TrajBuffer p = parts[part].get_buffer();
+        if (part < parts.length - 1) {
+            final int last = p.size - 1;
+            if (p.distance[last] - p.distance[Math.min(closestPoint, last)] <= handoffDistance) {
+                points = parts[++part].get_buffer();
+                return p.size;
+            }
+        }
+        if (points != p)
+            points = p;
+        return 0;
+    }
+
+    /**
+     * This method profiles every part that is not already profiled by an equal
+     * profiler. With blending, the velocities around each join are profiled again
+     * from the stopping distance before it to the stopping distance after it, and
+     * the joins are limited so the robot can reach each one from the one before
+     * and stop at the end of the sequence
+     * 
+     * @param profiler profiler to calculate the velocities with
+     */
+    @Override
+    public void profile(final VelocityProfiler profiler) {
+        for (final Path p : parts)
+            if (!profiler.equals(p.get_profiler()))
+                p.profile(profiler);
+        this.profiler = profiler;
+        if (!blend || parts.length == 1)
+            return;
+        final double maxAcceleration = profiler.get_drive_characterization().maxAcceleration;
+        final double[] join = new double[parts.length + 1];
+        for (int k = 1; k < parts.length; k++)
+            join[k] = calc_join(parts[k - 1].get_buffer(), parts[k].get_buffer(), profiler);
+        for (int k = 1; k < parts.length; k++)
+            join[k] = Math.min(join[k], Math.sqrt(join[k - 1] * join[k - 1]
+                    + 2 * maxAcceleration * parts[k - 1].get_length()));
+        for (int k = parts.length - 1; k > 0; k--)
+            join[k] = Math.min(join[k], Math.sqrt(join[k + 1] * join[k + 1]
+                    + 2 * maxAcceleration * parts[k].get_length()));
+        for (int k = 0; k < parts.length; k++) {
+            if (join[k] > 0 || join[k + 1] > 0) {
+                calc_velocity(parts[k].get_buffer(), profiler, join[k], join[k + 1]);
+                parts[k].profiler = null;
+            }
+        }
+    }
+
+    /**
+     * This method calculates the velocity of the robot where one part ends and
+     * the next begins
+     * 
+     * @param a        points of the part that ends
+     * @param b        points of the part that begins
+     * @param profiler profiler the parts were profiled with
+     * @return velocity at the join
+     */
+    static double calc_join(final TrajBuffer a, final TrajBuffer b, final VelocityProfiler profiler) {
+        final int last = a.size - 1;
+        final double limit = Math.min(profiler.get_max_velocity(a.x[last], a.y[last], a.curvature[last]),
+                profiler.get_max_velocity(b.x[0], b.y[0], b.curvature[0]));
+        final double ax = a.x[last] - a.x[last - 1];
+        final double ay = a.y[last] - a.y[last - 1];
+        final double bx = b.x[1] - b.x[0];
+        final double by = b.y[1] - b.y[0];
+        final double cos = (ax * bx + ay * by) / Math.sqrt((ax * ax + ay * ay) * (bx * bx + by * by));
+        return (cos > 0) ? limit * cos : 0;
+    }
+
+    /**
+     * This method profiles the ends of a part again for the velocities of its
+     * joins. Each window reaches the stopping distance into the part, so the
+     * velocities outside of it stay the same
+     * 
+     * @param p        points of the part, already profiled to start and end at
+     *                 rest
+     * @param profiler profiler the part was profiled with
+     * @param start    velocity at the start of the part
+     * @param end      velocity at the end of the part
+     */
+    static void calc_velocity(final TrajBuffer p, final VelocityProfiler profiler, final double start,
+            final double end) {
+        final DriveCharacterization dc = profiler.get_drive_characterization();
+        final double stop = dc.maxVelocity * dc.maxVelocity / (2 * dc.maxAcceleration);
+        final int last = p.size - 1;
+        if (end > 0) {
+            int from = last;
+            for (double d = 0; from > 0 && d < stop; from--)
+                d += p.dist(from, from - 1);
+            p.velocity[last] = end;
+            if (from == 0 && start == 0) {
+                p.velocity[0] = 0;
+                profiler.profile(p, 0, last);
+                p.velocity[0] = p.velocity[1];
+                p.calc_time(0);
+            } else
+                profiler.profile(p, from, last);
+        }
+        if (start > 0) {
+            int to = 0;
+            for (double d = 0; to < last && d < stop; to++)
+                d += p.dist(to, to + 1);
+            p.velocity[0] = start;
+            profiler.profile(p, 0, to);
+        }
+    }
+
+    /**
+     * This method goes back to the first part, call it with reset on the
+     * controller to follow the sequence again
+     */
+    public void reset() {
+        part = 0;
+        points = parts[0].get_buffer();
+    }
+
+    /**
+     * This method returns the part the robot is following
+     * 
+     * @return index of the current part
+     */
+    public int get_part() {
+        return part;
+    }
+
+    /**
+     * This method returns the index of the first point of the current part in
+     * the whole sequence
+     * 
+     * @return number of points in the parts before the current one
+     */
+    public int get_offset() {
+        return offsets[part];
+    }
+
+    /**
+     * This method returns the parts of the sequence
+     * 
+     * @return paths followed in order
+     */
+    public List<Path> get_parts() {
+        return List.of(parts);
+    }
+
+    @Override
+    public Path share_points() {
+        final ArrayList<Path> shared = new ArrayList<>(parts.length);
+        for (final Path p : parts)
+            shared.add(p.share_points());
+        return new CompositePath(shared, handoffDistance, blend);
+    }
+
+    /**
+     * This method returns a composite path over the same parts, starting at the
+     * first part, so another controller can follow the sequence without profiling
+     * the parts again
+     * 
+     * @return composite path sharing the parts and profiler
+     */
+    @Override
+    public Path fork() {
+        final CompositePath path = new CompositePath(List.of(parts), handoffDistance, blend);
+        path.profiler = this.profiler;
+        return path;
+    }
+
+    @Override
+    public PathIndex get_index() {
+        return parts[part].get_index();
+    }
+
+    @Override
+    public void build_index(final double cellSize) {
+        for (final Path p : parts)
+            if (p.get_index() == null)
+                p.build_index(cellSize);
+    }
+
+    @Override
+    public int get_size() {
+        return offsets[parts.length];
+    }
+
+    @Override
+    public TrajPoint get_point(final int i) {
+        int k = 0;
+        while (i >= offsets[k + 1])
+            k++;
+        return parts[k].get_point(i - offsets[k]);
+    }
+
+    @Override
+    public ArrayList<TrajPoint> get_points() {
+        final ArrayList<TrajPoint> p = new ArrayList<>(get_size());
+        for (final Path part : parts)
+            p.addAll(part.get_points());
+        return p;
+    }
+
+    @Override
+    public ArrayList<TrajPoint> get_points(final int i) {
+        final ArrayList<TrajPoint> p = new ArrayList<>(Math.max(get_size() - i, 0));
+        for (int j = i; j < get_size() - 1; j++)
+            p.add(get_point(j));
+        return p;
+    }
+
+    @Override
+    public double get_length() {
+        double length = 0;
+        for (final Path p : parts)
+            length += p.get_length();
+        return length;
+    }
+
+    @Override
+    public double get_duration() {
+        double duration = 0;
+        for (final Path p : parts)
+            duration += p.get_duration();
+        return duration;
+    }
+
+    @Override
+    public TrajPoint sample_distance(final double s) {
+        double before = 0;
+        int k = 0;
+        while (k < parts.length - 1 && s > before + parts[k].get_length())
+            before += parts[k++].get_length();
+        final TrajPoint p = parts[k].sample_distance(s - before);
+        double time = 0;
+        for (int j = 0; j < k; j++)
+            time += parts[j].get_duration();
+        p.distance += before;
+        p.time += time;
+        return p;
+    }
+
+    @Override
+    public TrajPoint sample_time(final double t) {
+        double before = 0;
+        int k = 0;
+        while (k < parts.length - 1 && t > before + parts[k].get_duration())
+            before += parts[k++].get_duration();
+        final TrajPoint p = parts[k].sample_time(t - before);
+        double distance = 0;
+        for (int j = 0; j < k; j++)
+            distance += parts[j].get_length();
+        p.distance += distance;
+        p.time += before;
+        return p;
+    }
+
+    @Override
+    public ArrayList<WayPoint> get_waypoints() {
+        return this.waypoints;
+    }
+}
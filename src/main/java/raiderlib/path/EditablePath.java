@@ -0,0 +1,173 @@
+package raiderlib.path;
+
+import java.util.ArrayList;
+
+import raiderlib.control.DriveCharacterization;
+import raiderlib.control.VelocityProfiler;
+
+/**
+ * This class is used as a path whose waypoints can be moved while the robot
+ * follows it. Only the segments next to a moved waypoint are generated again,
+ * the rest of the points are copied, and the velocities are profiled again only
+ * around the change. Each edit publishes a new buffer, so a controller never
+ * sees a half edited path. Edits should be ahead of the robot, the indices of
+ * the points before the change stay the same
+ */
+public class EditablePath extends Path {
+
+    PathSegment[] segments;
+    int[] offsets;
+
+    /**
+     * Constructor for EditablePath class
+     * 
+     * @param waypoints waypoints of the path
+     */
+    public EditablePath(final ArrayList<WayPoint> waypoints) {
+        this(waypoints, 1);
+    }
+
+    /**
+     * Constructor for EditablePath class
+     * 
+     * @param waypoints waypoints of the path
+     * @param spacing   max arc length between generated points
+     * @throws IllegalArgumentException if the spacing is not positive
+     */
+    public EditablePath(final ArrayList<WayPoint> waypoints, final double spacing) {
+        super(waypoints, null, null);
+        this.spacing = check_spacing(spacing);
+        calc_tan(waypoints);
+        segments = gen_segments(waypoints, spacing);
+        offsets = calc_offsets(segments);
+        points = gen_points(waypoints.get(0), segments, offsets);
+    }
+
+    /**
+     * This method moves a waypoint of the path. The segments whose waypoints or
+     * tangents changed are generated again, and if the path was profiled the
+     * velocities are profiled again from maxVelocity^2 / (2 * maxAcceleration)
+     * before the change to the same distance after it
+     * 
+     * @param i        index of the waypoint
+     * @param waypoint new waypoint
+     */
+    public synchronized void set_waypoint(final int i, final WayPoint waypoint) {
+        final int n = waypoints.size();
+        final double[] old = new double[4 * n];
+        for (int j = 0; j < n; j++) {
+            final WayPoint w = waypoints.get(j);
+            old[4 * j] = w.x;
+            old[4 * j + 1] = w.y;
+            old[4 * j + 2] = w.tanPoint.x;
+            old[4 * j + 3] = w.tanPoint.y;
+        }
+        waypoints.set(i, waypoint);
+        calc_tan(waypoints);
+        int first = n, last = -1;
+        for (int j = 0; j < n; j++) {
+            final WayPoint w = waypoints.get(j);
+            if (w.x != old[4 * j] || w.y != old[4 * j + 1] || w.tanPoint.x != old[4 * j + 2]
+                    || w.tanPoint.y != old[4 * j + 3]) {
+                first = Math.min(first, j);
+                last = j;
+            }
+        }
+        if (last < 0)
+            return;
+        first = Math.max(first - 1, 0);
+        last = Math.min(last, n - 2);
+
+        final PathSegment[] segments = this.segments.clone();
+        for (int j = first; j <= last; j++)
+            segments[j] = new PathSegment(waypoints.get(j), waypoints.get(j + 1), spacing);
+        final int[] offsets = calc_offsets(segments);
+        final TrajBuffer prev = this.points;
+        final TrajBuffer p = new TrajBuffer(offsets[segments.length]);
+        p.size = offsets[segments.length];
+        final int start = (first == 0) ? 0 : offsets[first];
+        if (first == 0) {
+            p.x[0] = waypoints.get(0).x;
+            p.y[0] = waypoints.get(0).y;
+            p.curvature[0] = segments[0].get_curvature(0);
+        } else
+            copy(prev, 0, p, 0, start);
+        for (int j = first; j <= last; j++)
+            segments[j].gen_points(p, offsets[j]);
+        final int end = offsets[last + 1];
+        copy(prev, this.offsets[last + 1], p, end, p.size - end);
+
+        if (profiler != null)
+            calc_velocity(p, profiler, start, end - 1);
+        this.segments = segments;
+        this.offsets = offsets;
+        this.points = p;
+    }
+
+    /**
+     * This method profiles the velocities of the points around a changed range
+     * again. The window is widened on each side until it is the stopping distance
+     * away from the change, so the velocities outside of it stay the same
+     * 
+     * @param p        buffer of points with the velocities outside the change
+     * @param profiler profiler the path was profiled with
+     * @param start    index of the first changed point
+     * @param end      index of the last changed point
+     */
+    static void calc_velocity(final TrajBuffer p, final VelocityProfiler profiler, final int start,
+            final int end) {
+        final DriveCharacterization dc = profiler.get_drive_characterization();
+        final double stop = dc.maxVelocity * dc.maxVelocity / (2 * dc.maxAcceleration);
+        int from = Math.max(start - 1, 0);
+        for (double d = 0; from > 0 && d < stop; from--)
+            d += p.dist(from, from - 1);
+        int to = Math.min(end + 1, p.size - 1);
+        for (double d = 0; to < p.size - 1 && d < stop; to++)
+            d += p.dist(to, to + 1);
+        if (from == 0)
+            p.velocity[0] = 0;
+        if (to == p.size - 1)
+            p.velocity[to] = 0;
+        profiler.profile(p, from, to);
+        if (from == 0) {
+            p.velocity[0] = p.velocity[1];
+            p.calc_time(0);
+        }
+    }
+
+    /**
+     * This method copies a range of points with their velocities, distances and
+     * times between buffers
+     * 
+     * @param src     buffer to copy from
+     * @param srcPos  index of the first point to copy
+     * @param dest    buffer to copy to
+     * @param destPos index the first point is copied to
+     * @param length  number of points to copy
+     */
+    static void copy(final TrajBuffer src, final int srcPos, final TrajBuffer dest, final int destPos,
+            final int length) {
+        System.arraycopy(src.x, srcPos, dest.x, destPos, length);
+        System.arraycopy(src.y, srcPos, dest.y, destPos, length);
+        System.arraycopy(src.curvature, srcPos, dest.curvature, destPos, length);
+        System.arraycopy(src.velocity, srcPos, dest.velocity, destPos, length);
+        System.arraycopy(src.distance, srcPos, dest.distance, destPos, length);
+        System.arraycopy(src.time, srcPos, dest.time, destPos, length);
+    }
+
+    /**
+     * This method does nothing, each edit publishes a new buffer that an index
+     * built before it would not match, so the controller searches the points of
+     * an editable path without an index
+     * 
+     * @param cellSize unused
+     */
+    @Override
+    public void build_index(final double cellSize) {
+    }
+
+    @Override
+    public ArrayList<WayPoint> get_waypoints() {
+        return this.waypoints;
+    }
+}
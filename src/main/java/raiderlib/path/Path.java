@@ -1,7 +1,10 @@
 package raiderlib.path;
 
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
 
+import raiderlib.control.DriveCharacterization;
+import raiderlib.control.VelocityProfiler;
 import raiderlib.geometry.Point;
 
 /**
@@ -10,25 +13,80 @@ import raiderlib.geometry.Point;
  */
 public abstract class Path {
 
-    ArrayList<TrajPoint> points;
+    static final int PARALLEL_THRESHOLD = 64;
+
+    volatile TrajBuffer points;
     ArrayList<WayPoint> waypoints;
+    PathIndex index;
+    VelocityProfiler profiler;
+    double spacing = Double.NaN;
 
     /**
      * Constructor for Path class
      */
     public Path() {
+        this(1);
+    }
+
+    /**
+     * Constructor for Path class
+     * 
+     * @param spacing max arc length between generated points
+     * @throws IllegalArgumentException if the spacing is not positive
+     */
+    public Path(final double spacing) {
+        this.spacing = check_spacing(spacing);
         waypoints = get_waypoints();
         calc_tan(waypoints);
-        points = gen_points(waypoints);
-        calc_curvature(points);
+        points = gen_points(waypoints, spacing);
     }
-    
+
     public Path(ArrayList<WayPoint> waypoints){
+        this(waypoints, 1);
+    }
+
+    /**
+     * Constructor for Path class
+     * 
+     * @param waypoints waypoints of the path
+     * @param spacing   max arc length between generated points
+     * @throws IllegalArgumentException if the spacing is not positive
+     */
+    public Path(final ArrayList<WayPoint> waypoints, final double spacing) {
+        this.spacing = check_spacing(spacing);
         this.waypoints = waypoints;
         calc_tan(this.waypoints);
-        points = gen_points(this.waypoints);
-        calc_curvature(points);
+        points = gen_points(this.waypoints, spacing);
+    }
+
+    /**
+     * Constructor for Path class from points that were already generated
+     * 
+     * @param waypoints waypoints of the path with their tangents calculated
+     * @param points    generated points of the path
+     * @param profile   drive characterization the velocities were profiled for,
+     *                  or null if they were not profiled
+     */
+    protected Path(final ArrayList<WayPoint> waypoints, final TrajBuffer points,
+            final DriveCharacterization profile) {
+        this.waypoints = waypoints;
+        this.points = points;
+        this.profiler = (profile == null) ? null : new VelocityProfiler(profile);
     }
+
+    /**
+     * This method checks the spacing of generated points
+     * 
+     * @param spacing max arc length between generated points
+     * @return the spacing
+     * @throws IllegalArgumentException if the spacing is not positive
+     */
+    static double check_spacing(final double spacing) {
+        if (!(spacing > 0))
+            throw new IllegalArgumentException("spacing must be positive: " + spacing);
+        return spacing;
+    }
+
     /**
      * This method is used for calculating the tangent vectors for each waypoint
      * 
@@ -80,58 +138,288 @@ public abstract class Path {
     }
 
     /**
-     * This method is used to calculate the curvature at each point
-     * 
-     * @param points Arraylist of points to calculate curvatures for
-     */
-    void calc_curvature(final ArrayList<TrajPoint> points) {
-        double E, D, F, h, k, r;
-        for (int i = 1; i < points.size() - 1; i++) {
-            E = ((points.get(i - 1).x - points.get(i).x)
-                    * (points.get(i + 1).x * points.get(i + 1).x + points.get(i + 1).y * points.get(i + 1).y
-                            - points.get(i - 1).x * points.get(i - 1).x - points.get(i - 1).y * points.get(i - 1).y)
-                    - (points.get(i - 1).x - points.get(i + 1).x) * (points.get(i).x * points.get(i).x
-                            + points.get(i).y * points.get(i).y - points.get(i - 1).x * points.get(i - 1).x
-                            - points.get(i - 1).y * points.get(i - 1).y))
-                    / ((points.get(i - 1).x - points.get(i + 1).x) * (points.get(i).y - points.get(i - 1).y)
-                            - (points.get(i - 1).x - points.get(i).x) * (points.get(i + 1).y - points.get(i - 1).y));
-            D = (points.get(i).x * points.get(i).x + points.get(i).y * points.get(i).y
-                    - points.get(i - 1).x * points.get(i - 1).x - points.get(i - 1).y * points.get(i - 1).y
-                    + E * points.get(i).y - E * points.get(i - 1).y) / (points.get(i - 1).x - points.get(i).x);
-            F = -(points.get(i - 1).x * points.get(i - 1).x + points.get(i - 1).y * points.get(i - 1).y
-                    + D * points.get(i - 1).x + E * points.get(i - 1).y);
-            h = D / -2;
-            k = E / -2;
-            r = Math.sqrt(h * h + k * k - F);
-            if (r == 0)
-                points.get(i).curvature = 0;
-            else
-                points.get(i).curvature = 1 / r;
-        }
+     * This method generates the points of the path. Paths with at least
+     * PARALLEL_THRESHOLD waypoints build and sample their segments concurrently
+     * on the common fork-join pool, which gives the same points as generating
+     * them one after another
+     * 
+     * @return buffer of generated points from waypoints
+     */
+    TrajBuffer gen_points(final ArrayList<WayPoint> waypoints, final double spacing) {
+        final PathSegment[] segments = gen_segments(waypoints, spacing);
+        return gen_points(waypoints.get(0), segments, calc_offsets(segments));
     }
 
     /**
-     * @return ArrayList of generated points from waypoints
+     * This method builds the segments between each pair of waypoints
+     * 
+     * @param waypoints waypoints with their tangents calculated
+     * @param spacing   max arc length between generated points
+     * @return array of the segments
      */
-    ArrayList<TrajPoint> gen_points(final ArrayList<WayPoint> waypoints) {
-        final ArrayList<TrajPoint> p = new ArrayList<TrajPoint>();
-        p.add(new TrajPoint(waypoints.get(0).x, waypoints.get(0).y));
-        for (int i = 1; i < waypoints.size(); i++) {
-            final PathSegment s = new PathSegment(waypoints.get(i - 1), waypoints.get(i));
-            p.addAll(s.get_points());
-        }
+    PathSegment[] gen_segments(final ArrayList<WayPoint> waypoints, final double spacing) {
+        final PathSegment[] segments = new PathSegment[waypoints.size() - 1];
+        if (waypoints.size() >= PARALLEL_THRESHOLD)
+            ForkJoinPool.commonPool().invoke(new SegmentTask(waypoints, segments, spacing, 0, segments.length));
+        else
+            for (int i = 1; i < waypoints.size(); i++)
+                segments[i - 1] = new PathSegment(waypoints.get(i - 1), waypoints.get(i), spacing);
+        return segments;
+    }
+
+    /**
+     * This method calculates the index of the first point of each segment
+     * 
+     * @param segments segments of the path
+     * @return offset of each segment, followed by the total number of points
+     */
+    static int[] calc_offsets(final PathSegment[] segments) {
+        final int[] offsets = new int[segments.length + 1];
+        offsets[0] = 1;
+        for (int i = 0; i < segments.length; i++)
+            offsets[i + 1] = offsets[i] + segments[i].get_size();
+        return offsets;
+    }
+
+    /**
+     * This method samples the segments of the path into a buffer
+     * 
+     * @param start    first waypoint of the path
+     * @param segments segments of the path
+     * @param offsets  offset of each segment, followed by the total number of
+     *                 points
+     * @return buffer of generated points
+     */
+    TrajBuffer gen_points(final WayPoint start, final PathSegment[] segments, final int[] offsets) {
+        final int size = offsets[segments.length];
+        final TrajBuffer p = new TrajBuffer(size);
+        p.x[0] = start.x;
+        p.y[0] = start.y;
+        p.curvature[0] = segments[0].get_curvature(0);
+        if (segments.length + 1 >= PARALLEL_THRESHOLD)
+            ForkJoinPool.commonPool().invoke(new SegmentTask(segments, offsets, p, 0, segments.length));
+        else
+            for (int i = 0; i < segments.length; i++)
+                segments[i].gen_points(p, offsets[i]);
+        p.size = size;
         return p;
     }
 
     /**
-     * This method returns points generated from the path
+     * This method returns copies of the points generated from the path. Changes
+     * to the returned points are not written back to the path
      * 
      * @return trajectory points that form the path
      */
     public ArrayList<TrajPoint> get_points() {
+        return this.points.get_points(0, this.points.size);
+    }
+
+    /**
+     * This method creates a path sharing the generated points and spatial index
+     * of this path. The copy is not profiled, so it can be profiled for another
+     * drive characterization without changing this path
+     * 
+     * @return unprofiled path sharing the points
+     * @throws IllegalStateException if not every point of the path has been
+     *                               generated
+     */
+    public Path share_points() {
+        if (!is_complete())
+            throw new IllegalStateException("the points of an incomplete path can not be shared");
+        final Path path = new WayPointPath(this.waypoints, this.points.share_points(), null);
+        path.index = this.index;
+        path.spacing = this.spacing;
+        return path;
+    }
+
+    /**
+     * This method returns a path another controller can follow at the same time
+     * as this one. Paths that keep no state about the progress of the robot
+     * return themselves
+     * 
+     * @return path to give to another controller
+     */
+    public Path fork() {
+        return this;
+    }
+
+    /**
+     * This method returns the primitive arrays backing the points generated from
+     * the path
+     * 
+     * @return buffer of trajectory points that form the path
+     */
+    public TrajBuffer get_buffer() {
         return this.points;
     }
 
+    /**
+     * This method returns a copy of a single point generated from the path
+     * 
+     * @param i index of the point
+     * @return trajectory point at the given index
+     */
+    public TrajPoint get_point(final int i) {
+        return this.points.get_point(i);
+    }
+
+    /**
+     * This method returns the number of points generated from the path
+     * 
+     * @return number of trajectory points in the path
+     */
+    public int get_size() {
+        return this.points.size;
+    }
+
+    /**
+     * This method samples the path at a time since the start of the path. The
+     * path must be profiled first
+     * 
+     * @param t time from the start of the path
+     * @return interpolated trajectory point at the given time
+     */
+    public TrajPoint sample_time(final double t) {
+        return this.points.sample_time(t, new TrajPoint(0, 0));
+    }
+
+    /**
+     * This method samples the path at a distance along it. The path must be
+     * profiled first
+     * 
+     * @param s distance from the start of the path
+     * @return interpolated trajectory point at the given distance
+     */
+    public TrajPoint sample_distance(final double s) {
+        return this.points.sample_distance(s, new TrajPoint(0, 0));
+    }
+
+    /**
+     * This method returns the time the path takes to follow at the profiled
+     * velocities
+     * 
+     * @return time from the start to the end of the path
+     */
+    public double get_duration() {
+        return this.points.time[this.points.size - 1];
+    }
+
+    /**
+     * This method returns the length of the path along its points. The path must
+     * be profiled first
+     * 
+     * @return distance from the start to the end of the path
+     */
+    public double get_length() {
+        return this.points.distance[this.points.size - 1];
+    }
+
+    /**
+     * This method builds a spatial index over the generated points so the
+     * controller only searches the points near the robot. Call it once after the
+     * path is constructed, for example at the end of a subclass constructor
+     * 
+     * @param cellSize width of each grid cell, around the lookahead distance works
+     *                 well
+     */
+    public void build_index(final double cellSize) {
+        this.index = new PathIndex(this.points, cellSize);
+    }
+
+    /**
+     * This method returns the max arc length between the generated points of the
+     * path
+     * 
+     * @return spacing the points were generated with, or NaN if it is not known
+     */
+    public double get_spacing() {
+        return this.spacing;
+    }
+
+    /**
+     * This method returns the spatial index of the path
+     * 
+     * @return spatial index over the points, or null if none was built
+     */
+    public PathIndex get_index() {
+        return this.index;
+    }
+
+    /**
+     * This method returns the drive characterization the lookup velocities of the
+     * path were profiled for
+     * 
+     * @return drive characterization, or null if the path was not profiled
+     */
+    public DriveCharacterization get_profile() {
+        return (this.profiler == null) ? null : this.profiler.get_drive_characterization();
+    }
+
+    /**
+     * This method records the drive characterization the lookup velocities of the
+     * path were profiled for
+     * 
+     * @param profile drive characterization
+     */
+    public void set_profile(final DriveCharacterization profile) {
+        this.profiler = new VelocityProfiler(profile);
+    }
+
+    /**
+     * This method returns the profiler the lookup velocities of the path were
+     * calculated with
+     * 
+     * @return velocity profiler, or null if the path was not profiled
+     */
+    public VelocityProfiler get_profiler() {
+        return this.profiler;
+    }
+
+    /**
+     * This method records the profiler the lookup velocities of the path were
+     * calculated with
+     * 
+     * @param profiler velocity profiler
+     */
+    public void set_profiler(final VelocityProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * This method calculates the lookup velocities of the path with a profiler
+     * and records the profiler
+     * 
+     * @param profiler profiler to calculate the velocities with
+     */
+    public void profile(final VelocityProfiler profiler) {
+        profiler.profile(this.points);
+        this.profiler = profiler;
+    }
+
+    /**
+     * This method lets a path generate or release points as the robot moves along
+     * it. It is called by the controller before each search. Paths that generate
+     * all their points up front do nothing
+     * 
+     * @param closestPoint index of the closest point to the robot
+     * @return number of points released from the front of the buffer, indices of
+     *         the remaining points move down by this amount, stopping at 0
+     */
+    public int advance(final int closestPoint) {
+        return 0;
+    }
+
+    /**
+     * This method tells whether every point of the path has been generated
+     * 
+     * @return a boolean of whether the last point of the buffer is the end of the
+     *         path
+     */
+    public boolean is_complete() {
+        return true;
+    }
+
     /**
      * This method returns a sublist of the points generated from the path
      * 
@@ -139,7 +427,7 @@ public abstract class Path {
      * @return trajectory points from the given index that form the path
      */
     public ArrayList<TrajPoint> get_points(final int i) {
-        return new ArrayList<TrajPoint>(this.points.subList(i, points.size() - 1));
+        return this.points.get_points(i, this.points.size - 1);
     }
 
     /**
@@ -0,0 +1,123 @@
+package raiderlib.path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import raiderlib.control.DriveCharacterization;
+import raiderlib.control.VelocityProfiler;
+import raiderlib.geometry.Point;
+
+/**
+ * This class is used to generate and profile paths on background threads, so
+ * the control loop can keep following the current path while the next one is
+ * prepared. Each request returns a future of the finished path, which the
+ * control loop can poll with getNow(null) without blocking. A new request
+ * cancels the one before it, and a cancelled request that has not started is
+ * dropped from the queue. Requests wait in a bounded queue, and a request made
+ * while the queue is full fails with a RejectedExecutionException. A request
+ * whose generation throws, including errors like OutOfMemoryError, fails with
+ * what was thrown, so its future always completes
+ */
+public class PathBuilder implements AutoCloseable {
+
+    final double spacing;
+    final ThreadPoolExecutor executor;
+    CompletableFuture<Path> latest;
+    Runnable latestTask;
+
+    /**
+     * Constructor for PathBuilder class
+     * 
+     * @param threads       number of background threads
+     * @param queueCapacity max number of requests waiting for a thread
+     * @param spacing       max arc length between generated points
+     */
+    public PathBuilder(final int threads, final int queueCapacity, final double spacing) {
+        this.spacing = spacing;
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    final Thread thread = new Thread(r, "raiderlib-path-builder");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * This method requests a path through a list of waypoints, profiled with the
+     * default profiler of a drive characterization
+     * 
+     * @param waypoints             waypoints of the path, they are copied
+     * @param driveCharacterization drive characterization to profile the path for
+     * @return future of the generated and profiled path
+     */
+    public CompletableFuture<Path> build(final List<WayPoint> waypoints,
+            final DriveCharacterization driveCharacterization) {
+        return build(waypoints, new VelocityProfiler(driveCharacterization));
+    }
+
+    /**
+     * This method requests a path through a list of waypoints and cancels the
+     * request before it. The waypoints are copied before this method returns, so
+     * the list can be changed afterwards
+     * 
+     * @param waypoints waypoints of the path
+     * @param profiler  profiler to calculate the lookup velocities with
+     * @return future of the generated and profiled path
+     */
+    public CompletableFuture<Path> build(final List<WayPoint> waypoints, final VelocityProfiler profiler) {
+        final ArrayList<WayPoint> copy = new ArrayList<>(waypoints.size());
+        for (final WayPoint w : waypoints)
+            copy.add(new WayPoint(w.x, w.y, new Point(w.tanPoint.x, w.tanPoint.y)));
+        final CompletableFuture<Path> future = new CompletableFuture<>();
+        final Runnable task = () -> {
+            if (future.isDone())
+                return;
+            try {
+                final Path path = new WayPointPath(copy, spacing);
+                if (future.isDone())
+                    return;
+                path.profile(profiler);
+                future.complete(path);
+            } catch (final Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        synchronized (this) {
+            cancel();
+            latest = future;
+            latestTask = task;
+            try {
+                executor.execute(task);
+            } catch (final RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * This method cancels the latest request if it has not finished, and removes
+     * it from the queue if it has not started
+     */
+    public synchronized void cancel() {
+        if (latest == null)
+            return;
+        latest.cancel(false);
+        executor.remove(latestTask);
+    }
+
+    /**
+     * This method cancels the latest request and stops the background threads
+     * once the requests they are working on are done
+     */
+    @Override
+    public void close() {
+        cancel();
+        executor.shutdown();
+    }
+}
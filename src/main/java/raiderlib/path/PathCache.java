@@ -0,0 +1,188 @@
+package raiderlib.path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import raiderlib.control.DriveCharacterization;
+import raiderlib.control.VelocityProfiler;
+import raiderlib.geometry.Point;
+
+/**
+ * This class is used to reuse paths that are generated again and again, like
+ * paths to the same few vision targets. Paths are generated and profiled on
+ * the first request and kept until the least recently used one is dropped to
+ * make room. Waypoints are rounded to a grid before they are compared, so
+ * requests that differ by less than the grid share a path. The cache can be
+ * used from any thread. It is locked only to look paths up, so two threads
+ * missing the same path at once may both generate it, and the first one stored
+ * is kept
+ * 
+ * Cached paths are shared. Follow them with the default profiler of the drive
+ * characterization they were requested with, or follow a copy from
+ * share_points instead
+ */
+public class PathCache {
+
+    final int capacity;
+    final double quantum;
+    final double spacing;
+    final LinkedHashMap<Key, Path> paths;
+    long hits;
+    long misses;
+    long evictions;
+
+    /**
+     * Constructor for PathCache class
+     * 
+     * @param capacity max number of paths kept
+     * @param quantum  size of the grid the waypoints and tangents are rounded to
+     * @param spacing  max arc length between generated points
+     */
+    public PathCache(final int capacity, final double quantum, final double spacing) {
+        this.capacity = capacity;
+        this.quantum = quantum;
+        this.spacing = spacing;
+        this.paths = new LinkedHashMap<>(16, 0.75f, true) {
+            static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Path> eldest) {
+                if (size() <= PathCache.this.capacity)
+                    return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * This method returns the path through a list of waypoints, profiled for a
+     * drive characterization. The waypoints are copied, so the list can be
+     * changed afterwards
+     * 
+     * @param waypoints             waypoints of the path
+     * @param driveCharacterization drive characterization to profile the path for
+     * @return the cached path, or a new path that is now cached
+     */
+    public Path get(final List<WayPoint> waypoints, final DriveCharacterization driveCharacterization) {
+        final Key key = new Key(quantize(waypoints), driveCharacterization);
+        synchronized (this) {
+            final Path path = paths.get(key);
+            if (path != null) {
+                hits++;
+                return path;
+            }
+            misses++;
+        }
+        final ArrayList<WayPoint> copy = new ArrayList<>(waypoints.size());
+        for (final WayPoint w : waypoints)
+            copy.add(new WayPoint(w.x, w.y, new Point(w.tanPoint.x, w.tanPoint.y)));
+        final Path path = new WayPointPath(copy, spacing);
+        path.profile(new VelocityProfiler(driveCharacterization));
+        synchronized (this) {
+            final Path cached = paths.putIfAbsent(key, path);
+            return (cached == null) ? path : cached;
+        }
+    }
+
+    /**
+     * This method rounds the positions and tangents of waypoints to the grid
+     * 
+     * @param waypoints waypoints to round
+     * @return x, y, tangent x and tangent y of each waypoint in grid steps
+     */
+    long[] quantize(final List<WayPoint> waypoints) {
+        final long[] q = new long[4 * waypoints.size()];
+        for (int i = 0; i < waypoints.size(); i++) {
+            final WayPoint w = waypoints.get(i);
+            q[4 * i] = Math.round(w.x / quantum);
+            q[4 * i + 1] = Math.round(w.y / quantum);
+            q[4 * i + 2] = Math.round(w.tanPoint.x / quantum);
+            q[4 * i + 3] = Math.round(w.tanPoint.y / quantum);
+        }
+        return q;
+    }
+
+    /**
+     * This method removes every path from the cache. The counters are kept
+     */
+    public synchronized void clear() {
+        paths.clear();
+    }
+
+    /**
+     * This method returns the number of paths in the cache
+     * 
+     * @return number of cached paths
+     */
+    public synchronized int get_size() {
+        return paths.size();
+    }
+
+    /**
+     * This method returns the number of requests answered from the cache
+     * 
+     * @return number of hits
+     */
+    public synchronized long get_hits() {
+        return hits;
+    }
+
+    /**
+     * This method returns the number of requests that generated a path
+     * 
+     * @return number of misses
+     */
+    public synchronized long get_misses() {
+        return misses;
+    }
+
+    /**
+     * This method returns the number of paths dropped to make room
+     * 
+     * @return number of evictions
+     */
+    public synchronized long get_evictions() {
+        return evictions;
+    }
+
+    /**
+     * This class is used as the key of a cached path: the rounded waypoints and
+     * the drive characterization
+     */
+    static class Key {
+
+        final long[] waypoints;
+        final DriveCharacterization driveCharacterization;
+        final int hash;
+
+        /**
+         * Constructor for Key class
+         * 
+         * @param waypoints             rounded waypoints
+         * @param driveCharacterization drive characterization
+         */
+        Key(final long[] waypoints, final DriveCharacterization driveCharacterization) {
+            this.waypoints = waypoints;
+            this.driveCharacterization = driveCharacterization;
+            this.hash = 31 * Arrays.hashCode(waypoints) + driveCharacterization.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Key))
+                return false;
+            final Key k = (Key) o;
+            return hash == k.hash && Arrays.equals(waypoints, k.waypoints)
+                    && driveCharacterization.equals(k.driveCharacterization);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package raiderlib.path;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+import raiderlib.control.DriveCharacterization;
+import raiderlib.control.PurePursuitController;
+import raiderlib.control.VelocityProfiler;
+import raiderlib.geometry.Point;
+
+/**
+ * This class is used to write fully generated and profiled paths to a compact
+ * binary file and to load them back, so paths can be generated offline and
+ * loaded at boot without regenerating them. The header is read and checked
+ * before the rest of the file, and files are replaced atomically, so a file
+ * that was only partly written is never loaded.
+ * 
+ * The file holds a header (magic, version, checksum, waypoint count, point
+ * count, spacing), the drive characterization the path was profiled for, the
+ * waypoints with their tangents, and then the x, y, curvature and velocity
+ * arrays one after another. All values are little endian
+ */
+public final class PathFile {
+
+    static final int MAGIC = 0x524C5054;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4 + 8 + 3 * 8;
+    static final double DEFAULT_SPACING = 1;
+
+    private PathFile() {
+    }
+
+    /**
+     * This method calculates the checksum of the inputs a path is generated from
+     * with the default spacing
+     * 
+     * @param waypoints             waypoints of the path
+     * @param driveCharacterization drive characterization the path is profiled
+     *                              for
+     * @return checksum of the waypoints, spacing and drive characterization
+     */
+    public static long checksum(final ArrayList<WayPoint> waypoints,
+            final DriveCharacterization driveCharacterization) {
+        return checksum(waypoints, driveCharacterization, DEFAULT_SPACING);
+    }
+
+    /**
+     * This method calculates the checksum of the inputs a path is generated from.
+     * It must be calculated before the path is generated, since generating a path
+     * calculates the tangents of its waypoints
+     * 
+     * @param waypoints             waypoints of the path
+     * @param driveCharacterization drive characterization the path is profiled
+     *                              for
+     * @param spacing               max arc length between generated points
+     * @return checksum of the waypoints, spacing and drive characterization
+     */
+    public static long checksum(final ArrayList<WayPoint> waypoints,
+            final DriveCharacterization driveCharacterization, final double spacing) {
+        final ByteBuffer b = ByteBuffer.allocate(4 * 8 * waypoints.size() + 4 * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (final WayPoint w : waypoints)
+            b.putDouble(w.x).putDouble(w.y).putDouble(w.tanPoint.x).putDouble(w.tanPoint.y);
+        b.putDouble(spacing);
+        b.putDouble(driveCharacterization.maxVelocity).putDouble(driveCharacterization.maxAcceleration)
+                .putDouble(driveCharacterization.trackWidth);
+        b.flip();
+        final CRC32 crc = new CRC32();
+        crc.update(b);
+        return crc.getValue();
+    }
+
+    /**
+     * This method writes a profiled path to a file. The path is written to a
+     * temporary file next to it, which is then moved over the file in one step
+     * 
+     * @param file     file to write
+     * @param path     path to write, its velocities must already be profiled
+     * @param checksum checksum of the inputs the path was generated from
+     * @throws IOException if the file can not be written
+     */
+    public static void write(final File file, final Path path, final long checksum) throws IOException {
+        final DriveCharacterization profile = path.get_profile();
+        if (profile == null)
+            throw new IllegalArgumentException("path velocities have not been profiled");
+        if (!new VelocityProfiler(profile).equals(path.get_profiler()))
+            throw new IllegalArgumentException("path velocities were profiled with custom constraints");
+        if (!(path.get_spacing() > 0))
+            throw new IllegalArgumentException("path spacing is not known");
+        final ArrayList<WayPoint> waypoints = path.waypoints;
+        final TrajBuffer points = path.points;
+        final ByteBuffer b = ByteBuffer.allocate(HEADER_SIZE + 4 * 8 * waypoints.size() + 4 * 8 * points.size)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(MAGIC).putInt(VERSION).putLong(checksum).putInt(waypoints.size()).putInt(points.size);
+        b.putDouble(path.get_spacing());
+        b.putDouble(profile.maxVelocity).putDouble(profile.maxAcceleration).putDouble(profile.trackWidth);
+        for (final WayPoint w : waypoints)
+            b.putDouble(w.x).putDouble(w.y).putDouble(w.tanPoint.x).putDouble(w.tanPoint.y);
+        b.asDoubleBuffer().put(points.x, 0, points.size);
+        b.position(b.position() + 8 * points.size);
+        b.asDoubleBuffer().put(points.y, 0, points.size);
+        b.position(b.position() + 8 * points.size);
+        b.asDoubleBuffer().put(points.curvature, 0, points.size);
+        b.position(b.position() + 8 * points.size);
+        b.asDoubleBuffer().put(points.velocity, 0, points.size);
+        b.position(0);
+        final File temp = File.createTempFile(file.getName() + ".tmp", null, file.getAbsoluteFile().getParentFile());
+        try {
+            try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE)) {
+                while (b.hasRemaining())
+                    channel.write(b);
+                channel.force(true);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * This method reads a path generated with the default spacing from a file
+     * 
+     * @param file     file to read
+     * @param checksum checksum of the inputs the path is expected to be generated
+     *                 from
+     * @return the path, or null if the file is missing, corrupt or was generated
+     *         from different inputs
+     * @throws IOException if the file exists but can not be read
+     */
+    public static Path read(final File file, final long checksum) throws IOException {
+        return read(file, checksum, DEFAULT_SPACING);
+    }
+
+    /**
+     * This method reads a path from a file. The header is read and checked first,
+     * and the rest of the file is only read if it matches
+     * 
+     * @param file     file to read
+     * @param checksum checksum of the inputs the path is expected to be generated
+     *                 from
+     * @param spacing  spacing the path is expected to be generated with
+     * @return the path, or null if the file is missing, corrupt or was generated
+     *         from different inputs
+     * @throws IOException if the file exists but can not be read
+     */
+    public static Path read(final File file, final long checksum, final double spacing) throws IOException {
+        if (!file.isFile())
+            return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (!read_fully(channel, header) || header.getInt() != MAGIC || header.getInt() != VERSION
+                    || header.getLong() != checksum)
+                return null;
+            final int waypointCount = header.getInt();
+            final int pointCount = header.getInt();
+            if (header.getDouble() != spacing || waypointCount < 2 || pointCount < 2
+                    || channel.size() != HEADER_SIZE + 4 * 8 * (long) waypointCount + 4 * 8 * (long) pointCount)
+                return null;
+            final DriveCharacterization profile = new DriveCharacterization(header.getDouble(), header.getDouble(),
+                    header.getDouble());
+            final ByteBuffer b = ByteBuffer.allocate((int) (channel.size() - HEADER_SIZE))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (!read_fully(channel, b))
+                return null;
+            final ArrayList<WayPoint> waypoints = new ArrayList<>(waypointCount);
+            for (int i = 0; i < waypointCount; i++)
+                waypoints.add(new WayPoint(b.getDouble(), b.getDouble(), new Point(b.getDouble(), b.getDouble())));
+            final TrajBuffer points = new TrajBuffer(pointCount);
+            b.asDoubleBuffer().get(points.x, 0, pointCount);
+            b.position(b.position() + 8 * pointCount);
+            b.asDoubleBuffer().get(points.y, 0, pointCount);
+            b.position(b.position() + 8 * pointCount);
+            b.asDoubleBuffer().get(points.curvature, 0, pointCount);
+            b.position(b.position() + 8 * pointCount);
+            b.asDoubleBuffer().get(points.velocity, 0, pointCount);
+            points.size = pointCount;
+            points.calc_time(0);
+            final Path path = new WayPointPath(waypoints, points, profile);
+            path.spacing = spacing;
+            return path;
+        }
+    }
+
+    /**
+     * This method reads from a channel until a buffer is full, and flips it
+     * 
+     * @param channel channel to read
+     * @param b       buffer to fill
+     * @return a boolean of whether the buffer was filled before the end of the
+     *         channel
+     * @throws IOException if the channel can not be read
+     */
+    static boolean read_fully(final FileChannel channel, final ByteBuffer b) throws IOException {
+        while (b.hasRemaining())
+            if (channel.read(b) < 0)
+                return false;
+        b.flip();
+        return true;
+    }
+
+    /**
+     * This method loads a path generated with the default spacing from a file,
+     * or generates and profiles it and rewrites the file if the file is missing
+     * or the waypoints or drive characterization changed. The waypoints are
+     * copied before the path is generated, so the same list can be loaded again
+     * 
+     * @param file                  file the path is cached in
+     * @param waypoints             waypoints of the path
+     * @param driveCharacterization drive characterization to profile the path for
+     * @return the loaded or generated path
+     * @throws IOException if the file can not be read or written
+     */
+    public static Path load(final File file, final ArrayList<WayPoint> waypoints,
+            final DriveCharacterization driveCharacterization) throws IOException {
+        return load(file, waypoints, driveCharacterization, DEFAULT_SPACING);
+    }
+
+    /**
+     * This method loads a path from a file, or generates and profiles it and
+     * rewrites the file if the file is missing or the waypoints, spacing or drive
+     * characterization changed. The waypoints are copied before the path is
+     * generated, so the same list can be loaded again
+     * 
+     * @param file                  file the path is cached in
+     * @param waypoints             waypoints of the path
+     * @param driveCharacterization drive characterization to profile the path for
+     * @param spacing               max arc length between generated points
+     * @return the loaded or generated path
+     * @throws IOException if the file can not be read or written
+     */
+    public static Path load(final File file, final ArrayList<WayPoint> waypoints,
+            final DriveCharacterization driveCharacterization, final double spacing) throws IOException {
+        final long checksum = checksum(waypoints, driveCharacterization, spacing);
+        final Path cached = read(file, checksum, spacing);
+        if (cached != null)
+            return cached;
+        final ArrayList<WayPoint> copy = new ArrayList<>(waypoints.size());
+        for (final WayPoint w : waypoints)
+            copy.add(new WayPoint(w.x, w.y, new Point(w.tanPoint.x, w.tanPoint.y)));
+        final Path path = new WayPointPath(copy, spacing);
+        PurePursuitController.profile(path, driveCharacterization);
+        write(file, path, checksum);
+        return path;
+    }
+}
@@ -0,0 +1,214 @@
+package raiderlib.path;
+
+/**
+ * This class is used as a uniform grid over the trajectory points of a path so
+ * that closest point and lookahead queries only check the points near the
+ * robot. Each cell stores the indices of its points in ascending order
+ */
+public class PathIndex {
+
+    final double cellSize;
+    final double minX;
+    final double minY;
+    final int columns;
+    final int rows;
+    final int[] cellStart;
+    final int[] cellPoints;
+    final double[] x;
+    final double[] y;
+    final double maxSegment;
+
+    /**
+     * Constructor for PathIndex class. The index reads the coordinate arrays of
+     * the buffer directly, so the buffer must not grow afterwards
+     * 
+     * @param points   trajectory points to index
+     * @param cellSize width of each grid cell
+     */
+    public PathIndex(final TrajBuffer points, final double cellSize) {
+        this.cellSize = cellSize;
+        final int size = points.size;
+        x = points.x;
+        y = points.y;
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        double maxSegment = 0;
+        for (int i = 0; i < size; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+            if (i > 0)
+                maxSegment = Math.max(maxSegment, points.dist(i - 1, i));
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.maxSegment = maxSegment;
+        columns = (int) ((maxX - minX) / cellSize) + 1;
+        rows = (int) ((maxY - minY) / cellSize) + 1;
+        cellStart = new int[columns * rows + 1];
+        cellPoints = new int[size];
+        for (int i = 0; i < size; i++)
+            cellStart[get_cell(i) + 1]++;
+        for (int c = 0; c < columns * rows; c++)
+            cellStart[c + 1] += cellStart[c];
+        final int[] fill = new int[columns * rows];
+        for (int i = 0; i < size; i++) {
+            final int c = get_cell(i);
+            cellPoints[cellStart[c] + fill[c]++] = i;
+        }
+    }
+
+    /**
+     * This method finds the closest indexed point to a position
+     * 
+     * @param x    x coordinate
+     * @param y    y coordinate
+     * @param from first index that may be returned
+     * @param to   index after the last index that may be returned
+     * @return index of the closest point in the range, or -1 if the range is
+     *         empty. Ties are broken by the lower index
+     */
+    public int find_closest(final double x, final double y, final int from, final int to) {
+        return find_closest(x, y, from, to, null);
+    }
+
+    /**
+     * This method finds the closest indexed point to a position
+     * 
+     * @param x       x coordinate
+     * @param y       y coordinate
+     * @param from    first index that may be returned
+     * @param to      index after the last index that may be returned
+     * @param scanned if not null, scanned[0] is increased by the number of points
+     *                checked
+     * @return index of the closest point in the range, or -1 if the range is
+     *         empty. Ties are broken by the lower index
+     */
+    public int find_closest(final double x, final double y, final int from, final int to, final int[] scanned) {
+        int checked = 0;
+        final int col = get_column(x);
+        final int row = get_row(y);
+        final int maxRing = Math.max(Math.max(col, columns - 1 - col), Math.max(row, rows - 1 - row));
+        int closest = -1;
+        double dist = Double.MAX_VALUE;
+        for (int r = 0; r <= maxRing; r++) {
+            final int firstCol = Math.max(0, col - r);
+            final int lastCol = Math.min(columns - 1, col + r);
+            for (int c = firstCol; c <= lastCol; c++) {
+                final int step = (c == col - r || c == col + r) ? 1 : 2 * r;
+                for (int rr = row - r; rr <= row + r; rr += step) {
+                    if (rr < 0 || rr >= rows)
+                        continue;
+                    final int cell = rr * columns + c;
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        final int i = cellPoints[k];
+                        if (i < from || i >= to)
+                            continue;
+                        checked++;
+                        final double dx = this.x[i] - x;
+                        final double dy = this.y[i] - y;
+                        final double d = dx * dx + dy * dy;
+                        if (d < dist || (d == dist && i < closest)) {
+                            dist = d;
+                            closest = i;
+                        }
+                    }
+                }
+            }
+            if (closest != -1 && dist <= (r * cellSize) * (r * cellSize))
+                break;
+        }
+        if (scanned != null)
+            scanned[0] += checked;
+        return closest;
+    }
+
+    /**
+     * This method finds the indexed point with the highest index whose squared
+     * distance to a position is within the given bounds
+     * 
+     * @param x       x coordinate
+     * @param y       y coordinate
+     * @param minDist min squared distance
+     * @param maxDist max squared distance
+     * @param from    first index that may be returned
+     * @param to      index after the last index that may be returned
+     * @return highest matching index in the range, or -1 if there is none
+     */
+    public int find_last_within(final double x, final double y, final double minDist, final double maxDist,
+            final int from, final int to) {
+        return find_last_within(x, y, minDist, maxDist, from, to, null);
+    }
+
+    /**
+     * This method finds the indexed point with the highest index whose squared
+     * distance to a position is within the given bounds
+     * 
+     * @param x       x coordinate
+     * @param y       y coordinate
+     * @param minDist min squared distance
+     * @param maxDist max squared distance
+     * @param from    first index that may be returned
+     * @param to      index after the last index that may be returned
+     * @param scanned if not null, scanned[0] is increased by the number of points
+     *                checked
+     * @return highest matching index in the range, or -1 if there is none
+     */
+    public int find_last_within(final double x, final double y, final double minDist, final double maxDist,
+            final int from, final int to, final int[] scanned) {
+        int checked = 0;
+        final double radius = Math.sqrt(Math.max(maxDist, 0));
+        final int firstCol = Math.max(0, get_column(x - radius));
+        final int lastCol = Math.min(columns - 1, get_column(x + radius));
+        final int firstRow = Math.max(0, get_row(y - radius));
+        final int lastRow = Math.min(rows - 1, get_row(y + radius));
+        int last = -1;
+        for (int rr = firstRow; rr <= lastRow; rr++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                final int cell = rr * columns + c;
+                for (int k = cellStart[cell + 1] - 1; k >= cellStart[cell]; k--) {
+                    final int i = cellPoints[k];
+                    if (i <= last || i < from)
+                        break;
+                    if (i >= to)
+                        continue;
+                    checked++;
+                    final double dx = this.x[i] - x;
+                    final double dy = this.y[i] - y;
+                    final double d = dx * dx + dy * dy;
+                    if (d <= maxDist && d >= minDist) {
+                        last = i;
+                        break;
+                    }
+                }
+            }
+        }
+        if (scanned != null)
+            scanned[0] += checked;
+        return last;
+    }
+
+    /**
+     * This method returns the longest distance between two consecutive indexed
+     * points. A segment between two points that crosses a circle has its end
+     * within this distance of the circle
+     * 
+     * @return max distance between consecutive points
+     */
+    public double get_max_segment() {
+        return maxSegment;
+    }
+
+    int get_cell(final int i) {
+        return get_row(y[i]) * columns + get_column(x[i]);
+    }
+
+    int get_column(final double x) {
+        return (int) Math.floor((x - minX) / cellSize);
+    }
+
+    int get_row(final double y) {
+        return (int) Math.floor((y - minY) / cellSize);
+    }
+}
@@ -2,16 +2,22 @@ package raiderlib.path;
 
 import java.util.ArrayList;
 
-import raiderlib.geometry.Point;
-
 /**
- * This class is used as a segment between two waypoints
+ * This class is used as a segment between two waypoints. Points are sampled at
+ * an even arc length spacing using a lookup table of the arc length along the
+ * spline
  */
 public class PathSegment {
 
+    static final double GAUSS_NODE = Math.sqrt(0.6);
+
     WayPoint startPoint;
     WayPoint endPoint;
-    ArrayList<TrajPoint> points;
+    final double ax, bx, cx, dx;
+    final double ay, by, cy, dy;
+    final double[] arcTable;
+    final double length;
+    final int count;
 
     /**
      * Constructor for PathSegment class
@@ -20,47 +26,141 @@ public class PathSegment {
      * @param endPoint   ending waypoint in segment
      */
     public PathSegment(final WayPoint startPoint, final WayPoint endPoint) {
+        this(startPoint, endPoint, 1);
+    }
+
+    /**
+     * Constructor for PathSegment class
+     * 
+     * @param startPoint starting waypoint in segment
+     * @param endPoint   ending waypoint in segment
+     * @param spacing    max arc length between generated points
+     * @throws IllegalArgumentException if the spacing is not positive
+     */
+    public PathSegment(final WayPoint startPoint, final WayPoint endPoint, final double spacing) {
+        Path.check_spacing(spacing);
         this.startPoint = startPoint;
         this.endPoint = endPoint;
-        points = gen_points();
+        ax = 2 * startPoint.x - 2 * endPoint.x + startPoint.tanPoint.x + endPoint.tanPoint.x;
+        bx = -3 * startPoint.x + 3 * endPoint.x - 2 * startPoint.tanPoint.x - endPoint.tanPoint.x;
+        cx = startPoint.tanPoint.x;
+        dx = startPoint.x;
+        ay = 2 * startPoint.y - 2 * endPoint.y + startPoint.tanPoint.y + endPoint.tanPoint.y;
+        by = -3 * startPoint.y + 3 * endPoint.y - 2 * startPoint.tanPoint.y - endPoint.tanPoint.y;
+        cy = startPoint.tanPoint.y;
+        dy = startPoint.y;
+        arcTable = calc_arc_table(spacing);
+        length = arcTable[arcTable.length - 1];
+        count = Math.max(1, (int) Math.ceil(length / spacing - 1e-9));
     }
 
     /**
-     * This method generates trajectory points in a segment
+     * This method generates trajectory points in a segment and writes them into a
+     * buffer, which must already be large enough. The points are evenly spaced by
+     * arc length and the last point is the end waypoint. The curvature of each
+     * point is calculated from the derivatives of the spline
      * 
-     * @return ArrayList of generated points
+     * @param out    buffer the generated points are written to
+     * @param offset index the first point is written at
      */
-    ArrayList<TrajPoint> gen_points() {
-        final ArrayList<TrajPoint> p = new ArrayList<>();
-        final double d = get_divisor(1);
-        for (double t = 1; t <= d; t++) {
-            final double i = t / d;
-            final double h1 = 2 * Math.pow(i, 3) - 3 * Math.pow(i, 2) + 1;
-            final double h2 = -2 * Math.pow(i, 3) + 3 * Math.pow(i, 2);
-            final double h3 = Math.pow(i, 3) - 2 * Math.pow(i, 2) + i;
-            final double h4 = Math.pow(i, 3) - Math.pow(i, 2);
-            final double x = h1 * this.startPoint.x + h2 * this.endPoint.x + h3 * this.startPoint.tanPoint.x
-                    + h4 * this.endPoint.tanPoint.x;
-            final double y = h1 * this.startPoint.y + h2 * this.endPoint.y + h3 * this.startPoint.tanPoint.y
-                    + h4 * this.endPoint.tanPoint.y;
-            p.add(new TrajPoint(x, y));
+    void gen_points(final TrajBuffer out, final int offset) {
+        final double[] px = out.x;
+        final double[] py = out.y;
+        final double[] curvature = out.curvature;
+        final int n = arcTable.length - 1;
+        int k = 0;
+        for (int i = 1; i <= count; i++) {
+            double t = 1;
+            if (i < count) {
+                final double s = i * length / count;
+                while (arcTable[k + 1] < s)
+                    k++;
+                t = (k + (s - arcTable[k]) / (arcTable[k + 1] - arcTable[k])) / n;
+            }
+            px[offset + i - 1] = ((ax * t + bx) * t + cx) * t + dx;
+            py[offset + i - 1] = ((ay * t + by) * t + cy) * t + dy;
+            curvature[offset + i - 1] = get_curvature(t);
         }
-        return p;
     }
 
-    double get_divisor(final double currDivisor) {
-        final double i = 1 / currDivisor;
-        final double h1 = 2 * Math.pow(i, 3) - 3 * Math.pow(i, 2) + 1;
-        final double h2 = -2 * Math.pow(i, 3) + 3 * Math.pow(i, 2);
-        final double h3 = Math.pow(i, 3) - 2 * Math.pow(i, 2) + i;
-        final double h4 = Math.pow(i, 3) - Math.pow(i, 2);
-        final double x = h1 * this.startPoint.x + h2 * this.endPoint.x + h3 * this.startPoint.tanPoint.x
-                + h4 * this.endPoint.tanPoint.x;
-        final double y = h1 * this.startPoint.y + h2 * this.endPoint.y + h3 * this.startPoint.tanPoint.y
-                + h4 * this.endPoint.tanPoint.y;
-        if ((new Point(x, y)).dist(this.startPoint) <= 1)
-            return currDivisor;
-        return get_divisor(currDivisor * 2);
+    /**
+     * This method builds a table of the arc length from the start of the segment
+     * at evenly spaced spline parameters. The table is sized from a chord estimate
+     * of the length so there are several entries per generated point
+     * 
+     * @param spacing max arc length between generated points
+     * @return cumulative arc lengths, the last entry is the segment length
+     */
+    double[] calc_arc_table(final double spacing) {
+        double estimate = 0;
+        double px = dx, py = dy;
+        for (int k = 1; k <= 8; k++) {
+            final double t = k / 8.0;
+            final double x = ((ax * t + bx) * t + cx) * t + dx;
+            final double y = ((ay * t + by) * t + cy) * t + dy;
+            estimate += Math.sqrt((x - px) * (x - px) + (y - py) * (y - py));
+            px = x;
+            py = y;
+        }
+        final int n = Math.max(16, 4 * (int) Math.ceil(estimate / spacing));
+        final double[] table = new double[n + 1];
+        final double h = 1.0 / n;
+        for (int k = 0; k < n; k++) {
+            final double mid = (k + 0.5) * h;
+            final double half = 0.5 * h * GAUSS_NODE;
+            table[k + 1] = table[k]
+                    + 0.5 * h * (5.0 / 9 * get_speed(mid - half) + 8.0 / 9 * get_speed(mid)
+                            + 5.0 / 9 * get_speed(mid + half));
+        }
+        return table;
+    }
+
+    /**
+     * This method calculates the curvature of the spline from its first and second
+     * derivatives
+     * 
+     * @param t spline parameter between 0 and 1
+     * @return unsigned curvature, or 0 where the spline has no speed
+     */
+    double get_curvature(final double t) {
+        final double x1 = (3 * ax * t + 2 * bx) * t + cx;
+        final double y1 = (3 * ay * t + 2 * by) * t + cy;
+        final double x2 = 6 * ax * t + 2 * bx;
+        final double y2 = 6 * ay * t + 2 * by;
+        final double speed2 = x1 * x1 + y1 * y1;
+        if (speed2 == 0)
+            return 0;
+        return Math.abs(x1 * y2 - y1 * x2) / (speed2 * Math.sqrt(speed2));
+    }
+
+    /**
+     * This method calculates the speed of the spline with respect to its parameter
+     * 
+     * @param t spline parameter between 0 and 1
+     * @return magnitude of the first derivative
+     */
+    double get_speed(final double t) {
+        final double x = (3 * ax * t + 2 * bx) * t + cx;
+        final double y = (3 * ay * t + 2 * by) * t + cy;
+        return Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * This method returns the arc length of the segment
+     * 
+     * @return length of the segment
+     */
+    public double get_length() {
+        return this.length;
+    }
+
+    /**
+     * This method returns the number of points in the segment
+     * 
+     * @return number of points generated by the segment
+     */
+    public int get_size() {
+        return count;
     }
 
     /**
@@ -69,6 +169,9 @@ public class PathSegment {
      * @return An ArrayList of the points in the segment
      */
     public ArrayList<TrajPoint> get_points() {
-        return this.points;
+        final TrajBuffer p = new TrajBuffer(count);
+        gen_points(p, 0);
+        p.size = count;
+        return p.get_points(0, p.size);
     }
-}
\ No newline at end of file
+}
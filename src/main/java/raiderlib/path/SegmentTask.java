@@ -0,0 +1,82 @@
+package raiderlib.path;
+
+import java.util.ArrayList;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class is used to build or sample a range of path segments on a fork-join
+ * pool. The range is split in half until it is small enough to run directly
+ */
+class SegmentTask extends RecursiveAction {
+
+    static final long serialVersionUID = 1L;
+    static final int GRAIN = 8;
+
+    final ArrayList<WayPoint> waypoints;
+    final PathSegment[] segments;
+    final int[] offsets;
+    final TrajBuffer out;
+    final double spacing;
+    final int from;
+    final int to;
+
+    /**
+     * Constructor for a SegmentTask that builds the segments in a range
+     * 
+     * @param waypoints waypoints of the path
+     * @param segments  array the built segments are stored in
+     * @param spacing   max arc length between generated points
+     * @param from      index of the first segment
+     * @param to        index after the last segment
+     */
+    SegmentTask(final ArrayList<WayPoint> waypoints, final PathSegment[] segments, final double spacing,
+            final int from, final int to) {
+        this.waypoints = waypoints;
+        this.segments = segments;
+        this.offsets = null;
+        this.out = null;
+        this.spacing = spacing;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Constructor for a SegmentTask that samples the segments in a range
+     * 
+     * @param segments segments of the path
+     * @param offsets  index in the buffer of the first point of each segment
+     * @param out      buffer the points are written to
+     * @param from     index of the first segment
+     * @param to       index after the last segment
+     */
+    SegmentTask(final PathSegment[] segments, final int[] offsets, final TrajBuffer out, final int from,
+            final int to) {
+        this.waypoints = null;
+        this.segments = segments;
+        this.offsets = offsets;
+        this.out = out;
+        this.spacing = 0;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from > GRAIN) {
+            final int mid = (from + to) >>> 1;
+            if (out == null)
+                invokeAll(new SegmentTask(waypoints, segments, spacing, from, mid),
+                        new SegmentTask(waypoints, segments, spacing, mid, to));
+            else
+                invokeAll(new SegmentTask(segments, offsets, out, from, mid),
+                        new SegmentTask(segments, offsets, out, mid, to));
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            if (out == null)
+                segments[i] = new PathSegment(waypoints.get(i), waypoints.get(i + 1), spacing);
+            else
+                segments[i].gen_points(out, offsets[i]);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package raiderlib.path;
+
+import java.util.ArrayList;
+
+/**
+ * This class is used as a path that generates its segments on demand. The
+ * constructor generates only the first segment, and each call to advance
+ * generates at most one more until the horizon ahead of the robot is covered,
+ * so the first command only waits for one segment. Points the robot has passed
+ * are released, so memory stays bounded by the horizon. A streaming path can
+ * only be followed by one controller at a time
+ */
+public class StreamingPath extends Path {
+
+    static final int MIN_RELEASE = 64;
+
+    final double horizon;
+    int nextSegment;
+
+    /**
+     * Constructor for StreamingPath class
+     * 
+     * @param waypoints waypoints of the path
+     * @param spacing   max arc length between generated points
+     * @param horizon   arc length ahead of the robot to keep generated, it should
+     *                  be longer than the lookahead distance plus the stopping
+     *                  distance of the robot
+     * @throws IllegalArgumentException if the spacing is not positive
+     */
+    public StreamingPath(final ArrayList<WayPoint> waypoints, final double spacing, final double horizon) {
+        super(waypoints, new TrajBuffer((int) Math.ceil(2 * horizon / check_spacing(spacing)) + 2), null);
+        this.spacing = spacing;
+        this.horizon = horizon;
+        calc_tan(waypoints);
+        final PathSegment first = new PathSegment(waypoints.get(0), waypoints.get(1), spacing);
+        points.add(waypoints.get(0).x, waypoints.get(0).y, first.get_curvature(0));
+        gen_segment(first);
+    }
+
+    @Override
+    public int advance(final int closestPoint) {
+        if (!is_complete() && (points.size - 1 - closestPoint) * spacing < horizon)
+            gen_segment(new PathSegment(waypoints.get(nextSegment), waypoints.get(nextSegment + 1), spacing));
+        if (closestPoint < MIN_RELEASE || closestPoint < points.size / 2)
+            return 0;
+        points.release(closestPoint);
+        return closestPoint;
+    }
+
+    @Override
+    public boolean is_complete() {
+        return nextSegment == waypoints.size() - 1;
+    }
+
+    /**
+     * This method does nothing, the points of a streaming path move as they are
+     * generated and released, so the controller searches them without an index
+     * 
+     * @param cellSize unused
+     */
+    @Override
+    public void build_index(final double cellSize) {
+    }
+
+    @Override
+    public ArrayList<WayPoint> get_waypoints() {
+        return this.waypoints;
+    }
+
+    /**
+     * This method appends the points of the next segment to the buffer
+     * 
+     * @param segment the next segment
+     */
+    void gen_segment(final PathSegment segment) {
+        points.ensure_capacity(points.size + segment.get_size());
+        segment.gen_points(points, points.size);
+        points.size += segment.get_size();
+        nextSegment++;
+    }
+}
@@ -0,0 +1,263 @@
+package raiderlib.path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class is used to store the trajectory points of a path as parallel
+ * primitive arrays. Index i of each array holds the values of the i-th point,
+ * and only the first size entries are in use. The cumulative distance and time
+ * arrays are filled in when the velocities are profiled
+ */
+public class TrajBuffer {
+    public double[] x;
+    public double[] y;
+    public double[] curvature;
+    public double[] velocity;
+    public double[] distance;
+    public double[] time;
+    public int size;
+
+    /**
+     * Constructor for TrajBuffer class
+     * 
+     * @param capacity number of points the buffer can hold before growing
+     */
+    public TrajBuffer(final int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        curvature = new double[capacity];
+        velocity = new double[capacity];
+        distance = new double[capacity];
+        time = new double[capacity];
+        size = 0;
+    }
+
+    /**
+     * Constructor for TrajBuffer class sharing the points of another buffer
+     * 
+     * @param points buffer whose x, y and curvature arrays are shared
+     */
+    TrajBuffer(final TrajBuffer points) {
+        x = points.x;
+        y = points.y;
+        curvature = points.curvature;
+        velocity = new double[x.length];
+        distance = new double[x.length];
+        time = new double[x.length];
+        size = points.size;
+    }
+
+    /**
+     * This method creates a buffer sharing the x, y and curvature arrays of this
+     * buffer, with its own velocity, distance and time arrays so it can be
+     * profiled separately. Neither buffer should be changed other than by
+     * profiling while both are in use
+     * 
+     * @return buffer sharing the points
+     */
+    public TrajBuffer share_points() {
+        return new TrajBuffer(this);
+    }
+
+    /**
+     * This method appends a point to the buffer
+     * 
+     * @param x x coordinate
+     * @param y y coordinate
+     */
+    public void add(final double x, final double y) {
+        ensure_capacity(size + 1);
+        this.x[size] = x;
+        this.y[size] = y;
+        this.curvature[size] = 0;
+        this.velocity[size] = 0;
+        size++;
+    }
+
+    /**
+     * This method appends a point to the buffer
+     * 
+     * @param x         x coordinate
+     * @param y         y coordinate
+     * @param curvature lookup curvature
+     */
+    public void add(final double x, final double y, final double curvature) {
+        ensure_capacity(size + 1);
+        this.x[size] = x;
+        this.y[size] = y;
+        this.curvature[size] = curvature;
+        this.velocity[size] = 0;
+        size++;
+    }
+
+    /**
+     * This method grows the arrays so the buffer can hold at least the given
+     * number of points
+     * 
+     * @param capacity number of points needed
+     */
+    public void ensure_capacity(final int capacity) {
+        if (capacity <= x.length)
+            return;
+        final int length = Math.max(capacity, 2 * x.length);
+        x = Arrays.copyOf(x, length);
+        y = Arrays.copyOf(y, length);
+        curvature = Arrays.copyOf(curvature, length);
+        velocity = Arrays.copyOf(velocity, length);
+        distance = Arrays.copyOf(distance, length);
+        time = Arrays.copyOf(time, length);
+    }
+
+    /**
+     * This method removes points from the front of the buffer and moves the
+     * remaining points down
+     * 
+     * @param count number of points removed
+     */
+    public void release(final int count) {
+        final int remaining = size - count;
+        System.arraycopy(x, count, x, 0, remaining);
+        System.arraycopy(y, count, y, 0, remaining);
+        System.arraycopy(curvature, count, curvature, 0, remaining);
+        System.arraycopy(velocity, count, velocity, 0, remaining);
+        System.arraycopy(distance, count, distance, 0, remaining);
+        System.arraycopy(time, count, time, 0, remaining);
+        size = remaining;
+    }
+
+    /**
+     * This method calculates the distance between two points in the buffer
+     * 
+     * @param i index of the first point
+     * @param j index of the second point
+     * @return distance between the points
+     */
+    public double dist(final int i, final int j) {
+        final double dx = x[i] - x[j];
+        final double dy = y[i] - y[j];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * This method returns a copy of a point in the buffer. Changes to the
+     * returned point are not written back
+     * 
+     * @param i index of the point
+     * @return trajectory point at the given index
+     */
+    public TrajPoint get_point(final int i) {
+        final TrajPoint p = new TrajPoint(x[i], y[i], curvature[i], velocity[i]);
+        p.distance = distance[i];
+        p.time = time[i];
+        return p;
+    }
+
+    /**
+     * This method returns copies of a range of points in the buffer
+     * 
+     * @param from index of the first point
+     * @param to   index after the last point
+     * @return ArrayList of the points in the range
+     */
+    public ArrayList<TrajPoint> get_points(final int from, final int to) {
+        final ArrayList<TrajPoint> p = new ArrayList<>(Math.max(to - from, 0));
+        for (int i = from; i < to; i++)
+            p.add(get_point(i));
+        return p;
+    }
+
+    /**
+     * This method calculates the cumulative distance and time of the points from
+     * a point to the end of the buffer. The robot is assumed to accelerate evenly
+     * between points, so the time between two points is their distance over the
+     * mean of their velocities. The distance and time of the first point are kept
+     * 
+     * @param from index of the first point, its distance and time are kept
+     */
+    public void calc_time(final int from) {
+        for (int i = from + 1; i < size; i++) {
+            final double ds = dist(i - 1, i);
+            final double v = velocity[i - 1] + velocity[i];
+            distance[i] = distance[i - 1] + ds;
+            time[i] = time[i - 1] + ((v > 0) ? 2 * ds / v : 0);
+        }
+    }
+
+    /**
+     * This method finds the last point at or before a value of a cumulative array
+     * with a binary search
+     * 
+     * @param values cumulative distance or time array
+     * @param value  value to search for
+     * @return index of the point, between 0 and size - 2
+     */
+    int find(final double[] values, final double value) {
+        int low = 0, high = size - 2;
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if (values[mid] <= value)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    /**
+     * This method samples the trajectory at a distance along it. The values are
+     * interpolated between the two points around the distance
+     * 
+     * @param s   distance from the start of the path, clamped to the path
+     * @param out point the sample is written into
+     * @return the out point
+     */
+    public TrajPoint sample_distance(final double s, final TrajPoint out) {
+        final int i = find(distance, s);
+        final double ds = distance[i + 1] - distance[i];
+        final double f = (ds > 0) ? Math.max(0, Math.min(1, (s - distance[i]) / ds)) : 0;
+        return interpolate(i, f, out);
+    }
+
+    /**
+     * This method samples the trajectory at a time since the start of the path.
+     * The position between the two points around the time follows an even
+     * acceleration, so it matches the profiled velocities
+     * 
+     * @param t   time from the start of the path, clamped to the path
+     * @param out point the sample is written into
+     * @return the out point
+     */
+    public TrajPoint sample_time(final double t, final TrajPoint out) {
+        final int i = find(time, t);
+        final double dt = time[i + 1] - time[i];
+        if (dt <= 0)
+            return interpolate(i, 0, out);
+        final double tau = Math.max(0, Math.min(dt, t - time[i]));
+        final double accel = (velocity[i + 1] - velocity[i]) / dt;
+        final double ds = distance[i + 1] - distance[i];
+        final double f = (ds > 0) ? Math.min(1, (velocity[i] * tau + 0.5 * accel * tau * tau) / ds) : 0;
+        interpolate(i, f, out);
+        out.velocity = velocity[i] + accel * tau;
+        out.time = time[i] + tau;
+        return out;
+    }
+
+    /**
+     * This method interpolates between a point and the next one
+     * 
+     * @param i   index of the point
+     * @param f   fraction of the way to the next point
+     * @param out point the result is written into
+     * @return the out point
+     */
+    TrajPoint interpolate(final int i, final double f, final TrajPoint out) {
+        out.x = x[i] + f * (x[i + 1] - x[i]);
+        out.y = y[i] + f * (y[i + 1] - y[i]);
+        out.curvature = curvature[i] + f * (curvature[i + 1] - curvature[i]);
+        out.velocity = velocity[i] + f * (velocity[i + 1] - velocity[i]);
+        out.distance = distance[i] + f * (distance[i + 1] - distance[i]);
+        out.time = time[i] + f * (time[i + 1] - time[i]);
+        return out;
+    }
+}
@@ -8,6 +8,8 @@ import raiderlib.geometry.Point;
 public class TrajPoint extends Point {
     public double curvature;
     public double velocity;
+    public double distance;
+    public double time;
 
     /**
      * Constructor for TrajPoint class
@@ -1,6 +1,7 @@
 package raiderlib.path;
 
 import raiderlib.geometry.Point;
+import raiderlib.geometry.Rotation;
 
 /**
  * This class is used to represent a waypoint in a path
@@ -31,4 +32,16 @@ public class WayPoint extends Point {
                 this.tanPoint = new Point(Math.cos(theta), Math.sin(theta));
         }
 
+        /**
+         * Constructor for WayPoint class
+         * 
+         * @param x       x coordinate
+         * @param y       y coordinate
+         * @param heading heading of the path at the waypoint
+         */
+        public WayPoint(double x, double y, Rotation heading) {
+                super(x, y);
+                this.tanPoint = new Point(heading.get_cos(), heading.get_sin());
+        }
+
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package raiderlib.path;
+
+import java.util.ArrayList;
+
+import raiderlib.control.DriveCharacterization;
+
+/**
+ * This class is used as a path built from a list of waypoints instead of a
+ * subclass overriding get_waypoints
+ */
+public class WayPointPath extends Path {
+
+    /**
+     * Constructor for WayPointPath class
+     * 
+     * @param waypoints waypoints of the path
+     */
+    public WayPointPath(final ArrayList<WayPoint> waypoints) {
+        super(waypoints);
+    }
+
+    /**
+     * Constructor for WayPointPath class
+     * 
+     * @param waypoints waypoints of the path
+     * @param spacing   max arc length between generated points
+     */
+    public WayPointPath(final ArrayList<WayPoint> waypoints, final double spacing) {
+        super(waypoints, spacing);
+    }
+
+    /**
+     * Constructor for WayPointPath class from points that were already generated
+     * 
+     * @param waypoints waypoints of the path with their tangents calculated
+     * @param points    generated points of the path
+     * @param profile   drive characterization the velocities were profiled for,
+     *                  or null if they were not profiled
+     */
+    public WayPointPath(final ArrayList<WayPoint> waypoints, final TrajBuffer points,
+            final DriveCharacterization profile) {
+        super(waypoints, points, profile);
+    }
+
+    @Override
+    public ArrayList<WayPoint> get_waypoints() {
+        return this.waypoints;
+    }
+}
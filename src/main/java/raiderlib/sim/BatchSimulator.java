@@ -0,0 +1,154 @@
+package raiderlib.sim;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import raiderlib.control.DriveCharacterization;
+import raiderlib.control.DriveCommand;
+import raiderlib.control.PurePursuitController;
+import raiderlib.geometry.Pose;
+import raiderlib.path.Path;
+import raiderlib.path.TrajBuffer;
+
+/**
+ * This class is used to simulate a controller following paths without a robot.
+ * Each tick the command of the controller is fed into the kinematics of
+ * Pose.update, and the distance from the robot to the closest point of the path
+ * is recorded as the tracking error. Cases run in parallel on the common
+ * fork-join pool, each with its own controller, and every path is profiled only
+ * once per drive characterization
+ */
+public class BatchSimulator {
+
+    final double dt;
+    final double timeout;
+
+    /**
+     * Constructor for BatchSimulator class
+     * 
+     * @param dt      time between controller ticks
+     * @param timeout time after which a run that has not finished is stopped
+     */
+    public BatchSimulator(final double dt, final double timeout) {
+        this.dt = dt;
+        this.timeout = timeout;
+    }
+
+    /**
+     * This method simulates every case. The given paths are not changed, each
+     * path is profiled on a copy sharing its points, and paths without a spatial
+     * index get one so the searches stay short
+     * 
+     * @param cases cases to simulate, their paths must generate all of their
+     *              points up front
+     * @return the result of each case, in the same order
+     */
+    public SimResult[] run(final List<SimCase> cases) {
+        final IdentityHashMap<Path, HashMap<DriveCharacterization, Path>> profiled = new IdentityHashMap<>();
+        final SimCase[] prepared = new SimCase[cases.size()];
+        for (int i = 0; i < prepared.length; i++) {
+            final SimCase c = cases.get(i);
+            final Path path = prepare(profiled, c.path, c.driveCharacterization, c.lookAheadDistance);
+            prepared[i] = new SimCase(path, c.driveCharacterization, c.lookAheadDistance, c.noise, c.seed);
+        }
+        final SimResult[] results = new SimResult[prepared.length];
+        ForkJoinPool.commonPool().invoke(new SimTask(this, prepared, results, 0, prepared.length));
+        return results;
+    }
+
+    /**
+     * This method returns a copy of a path sharing its points, profiled for a
+     * drive characterization and indexed if the path has no index. Copies are
+     * remembered, so each path is profiled only once per drive characterization
+     * 
+     * @param profiled              copies already made, by path and drive
+     *                              characterization
+     * @param path                  path to copy, all of its points must be
+     *                              generated
+     * @param driveCharacterization drive characterization to profile for
+     * @param lookAheadDistance     lookahead distance used as the index cell size
+     * @return the profiled copy
+     */
+    static Path prepare(final IdentityHashMap<Path, HashMap<DriveCharacterization, Path>> profiled,
+            final Path path, final DriveCharacterization driveCharacterization, final double lookAheadDistance) {
+        return profiled.computeIfAbsent(path, p -> new HashMap<>()).computeIfAbsent(driveCharacterization, dc -> {
+            final Path copy = path.share_points();
+            if (copy.get_index() == null)
+                copy.build_index(lookAheadDistance);
+            PurePursuitController.profile(copy, dc);
+            return copy;
+        });
+    }
+
+    /**
+     * This method simulates one case. The robot starts on the first point of the
+     * path facing the second point
+     * 
+     * @param c   case to simulate, its path must already be profiled
+     * @param out result the outcome is written into
+     * @return the out result
+     */
+    public SimResult simulate(final SimCase c, final SimResult out) {
+        final DriveCharacterization dc = c.driveCharacterization;
+        final Path path = c.path.fork();
+        final PurePursuitController controller = new PurePursuitController(path, dc, c.lookAheadDistance);
+        TrajBuffer points = path.get_buffer();
+        final Pose pose = new Pose(points.x[0], points.y[0],
+                Math.atan2(points.y[1] - points.y[0], points.x[1] - points.x[0]));
+        final DriveCommand command = new DriveCommand(0, 0);
+        final SplittableRandom random = (c.noise == 0) ? null : new SplittableRandom(c.seed);
+        final int maxTicks = (int) Math.ceil(timeout / dt);
+        double totalError = 0;
+        double maxError = 0;
+        int ticks = 0;
+        while (ticks < maxTicks) {
+            controller.pursuit_path(pose, command);
+            points = path.get_buffer();
+            final int closest = controller.get_closest_point();
+            final double dx = pose.x - points.x[closest];
+            final double dy = pose.y - points.y[closest];
+            final double error = Math.sqrt(dx * dx + dy * dy);
+            if (error > maxError)
+                maxError = error;
+            if (controller.is_finished())
+                break;
+            totalError += error;
+            double left = command.left_command * dt;
+            double right = command.right_command * dt;
+            if (random != null) {
+                left += left * c.noise * gaussian(random);
+                right += right * c.noise * gaussian(random);
+            }
+            pose.update(dc, left, right);
+            ticks++;
+        }
+        final int last = points.size - 1;
+        out.finished = controller.is_finished();
+        out.ticks = ticks;
+        out.time = ticks * dt;
+        out.maxError = maxError;
+        out.meanError = (ticks == 0) ? 0 : totalError / ticks;
+        out.endError = Math.sqrt((pose.x - points.x[last]) * (pose.x - points.x[last])
+                + (pose.y - points.y[last]) * (pose.y - points.y[last]));
+        return out;
+    }
+
+    /**
+     * This method draws a standard normal value with the Marsaglia polar method
+     * 
+     * @param random source of random numbers
+     * @return normally distributed value with mean 0 and standard deviation 1
+     */
+    static double gaussian(final SplittableRandom random) {
+        double u, v, s;
+        do {
+            u = 2 * random.nextDouble() - 1;
+            v = 2 * random.nextDouble() - 1;
+            s = u * u + v * v;
+        } while (s >= 1 || s == 0);
+        return u * Math.sqrt(-2 * Math.log(s) / s);
+    }
+}
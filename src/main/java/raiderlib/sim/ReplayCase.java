@@ -0,0 +1,36 @@
+package raiderlib.sim;
+
+import java.io.File;
+
+import raiderlib.control.DriveCharacterization;
+import raiderlib.path.Path;
+
+/**
+ * This class is used to describe one recorded run to replay: the file written
+ * by a ReplayWriter, and the path, drive characterization and lookahead
+ * distance the controller was running with when it was recorded
+ */
+public class ReplayCase {
+
+    final File file;
+    final Path path;
+    final DriveCharacterization driveCharacterization;
+    final double lookAheadDistance;
+
+    /**
+     * Constructor for ReplayCase class
+     * 
+     * @param file                  recorded run
+     * @param path                  path that was followed, all of its points must
+     *                              be generated
+     * @param driveCharacterization drive characterization of the controller
+     * @param lookAheadDistance     max lookahead distance of the controller
+     */
+    public ReplayCase(final File file, final Path path, final DriveCharacterization driveCharacterization,
+            final double lookAheadDistance) {
+        this.file = file;
+        this.path = path;
+        this.driveCharacterization = driveCharacterization;
+        this.lookAheadDistance = lookAheadDistance;
+    }
+}
@@ -0,0 +1,25 @@
+package raiderlib.sim;
+
+import java.io.IOException;
+
+/**
+ * This class is used to hold the outcome of one replayed run. The replay
+ * matches the recording if it has no error and no mismatches
+ */
+public class ReplayResult {
+    public int ticks;
+    public int mismatches;
+    public int firstMismatch = -1;
+    public double maxCommandError;
+    public double maxPoseError;
+    public IOException error;
+
+    /**
+     * This method returns whether every replayed command matched the recorded one
+     * 
+     * @return a boolean of whether the file was read and nothing mismatched
+     */
+    public boolean is_match() {
+        return error == null && mismatches == 0;
+    }
+}
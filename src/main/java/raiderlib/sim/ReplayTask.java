@@ -0,0 +1,49 @@
+package raiderlib.sim;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class is used to replay a range of cases on a fork-join pool. The range
+ * is split in half until it is small enough to run directly
+ */
+class ReplayTask extends RecursiveAction {
+
+    static final long serialVersionUID = 1L;
+    static final int GRAIN = 2;
+
+    final Replayer replayer;
+    final ReplayCase[] cases;
+    final ReplayResult[] results;
+    final int from;
+    final int to;
+
+    /**
+     * Constructor for ReplayTask class
+     * 
+     * @param replayer replayer running the cases
+     * @param cases    cases to replay, with their paths already profiled
+     * @param results  array the results are stored in
+     * @param from     index of the first case
+     * @param to       index after the last case
+     */
+    ReplayTask(final Replayer replayer, final ReplayCase[] cases, final ReplayResult[] results, final int from,
+            final int to) {
+        this.replayer = replayer;
+        this.cases = cases;
+        this.results = results;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from > GRAIN) {
+            final int mid = (from + to) >>> 1;
+            invokeAll(new ReplayTask(replayer, cases, results, from, mid),
+                    new ReplayTask(replayer, cases, results, mid, to));
+            return;
+        }
+        for (int i = from; i < to; i++)
+            results[i] = replayer.replay(cases[i], new ReplayResult());
+    }
+}
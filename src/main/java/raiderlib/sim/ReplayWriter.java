@@ -0,0 +1,99 @@
+package raiderlib.sim;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import raiderlib.control.DriveCommand;
+import raiderlib.geometry.Pose;
+
+/**
+ * This class is used to record the inputs and outputs of a controller so the
+ * run can be replayed later with a Replayer. Each tick is written as a fixed
+ * size binary record into a buffer, and the buffer is written to the file when
+ * it is full, so most ticks do not touch the file
+ * 
+ * The file holds a header (magic, version, record size, starting x, y and
+ * theta) followed by the records: time, left encoder delta, right encoder
+ * delta, gyro reading (NaN if there is none), x, y and theta of the pose the
+ * controller was given, left command and right command. All values are little
+ * endian
+ */
+public class ReplayWriter implements AutoCloseable {
+
+    static final int MAGIC = 0x524C5250;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 36;
+    static final int RECORD_SIZE = 72;
+    static final int BUFFER_RECORDS = 1024;
+
+    final FileChannel channel;
+    final ByteBuffer buffer;
+
+    /**
+     * Constructor for ReplayWriter class
+     * 
+     * @param file  file to write, it is replaced if it exists
+     * @param start pose of the robot before the first tick
+     * @throws IOException if the file can not be created
+     */
+    public ReplayWriter(final File file, final Pose start) throws IOException {
+        buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE);
+        buffer.putDouble(start.x).putDouble(start.y).putDouble(start.theta);
+    }
+
+    /**
+     * This method records one tick
+     * 
+     * @param timeNanos  time of the tick in nanoseconds
+     * @param deltaLeft  distance left side has traveled since the last tick
+     * @param deltaRight distance right side has traveled since the last tick
+     * @param gyro       gyro reading(in radians), NaN to take the heading from
+     *                   the encoders
+     * @param pose       pose the controller was given
+     * @param command    command the controller returned
+     * @throws IOException if the buffer could not be written to the file
+     */
+    public void record(final long timeNanos, final double deltaLeft, final double deltaRight, final double gyro,
+            final Pose pose, final DriveCommand command) throws IOException {
+        if (buffer.remaining() < RECORD_SIZE)
+            flush();
+        buffer.putLong(timeNanos).putDouble(deltaLeft).putDouble(deltaRight).putDouble(gyro);
+        buffer.putDouble(pose.x).putDouble(pose.y).putDouble(pose.theta);
+        buffer.putDouble(command.left_command).putDouble(command.right_command);
+    }
+
+    /**
+     * This method writes the buffered records to the file
+     * 
+     * @throws IOException if the records could not be written
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * This method writes the remaining records and closes the file
+     * 
+     * @throws IOException if the records could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen())
+            return;
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package raiderlib.sim;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import raiderlib.control.DriveCharacterization;
+import raiderlib.control.DriveCommand;
+import raiderlib.control.PurePursuitController;
+import raiderlib.geometry.Pose;
+import raiderlib.path.Path;
+
+/**
+ * This class is used to replay recorded runs as fast as possible to check that
+ * the controller still gives the same commands. The recorded encoder deltas
+ * are fed through Pose.update and the controller, and each command is compared
+ * with the recorded one. Files are read in fixed size chunks instead of whole,
+ * and runs are replayed in parallel on the common fork-join pool, with every
+ * path profiled only once per drive characterization
+ */
+public class Replayer {
+
+    static final int CHUNK_RECORDS = 1024;
+
+    final double tolerance;
+
+    /**
+     * Constructor for Replayer class
+     * 
+     * @param tolerance largest difference between a replayed and a recorded
+     *                  command that still matches
+     */
+    public Replayer(final double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * This method replays every case. The given paths are not changed, each path
+     * is profiled on a copy sharing its points
+     * 
+     * @param cases cases to replay, their paths must generate all of their points
+     *              up front
+     * @return the result of each case, in the same order
+     */
+    public ReplayResult[] run(final List<ReplayCase> cases) {
+        final IdentityHashMap<Path, HashMap<DriveCharacterization, Path>> profiled = new IdentityHashMap<>();
+        final ReplayCase[] prepared = new ReplayCase[cases.size()];
+        for (int i = 0; i < prepared.length; i++) {
+            final ReplayCase c = cases.get(i);
+            final Path path = BatchSimulator.prepare(profiled, c.path, c.driveCharacterization,
+                    c.lookAheadDistance);
+            prepared[i] = new ReplayCase(c.file, path, c.driveCharacterization, c.lookAheadDistance);
+        }
+        final ReplayResult[] results = new ReplayResult[prepared.length];
+        ForkJoinPool.commonPool().invoke(new ReplayTask(this, prepared, results, 0, prepared.length));
+        return results;
+    }
+
+    /**
+     * This method replays one case. If the file can not be read the error is set
+     * and the ticks replayed before it are kept
+     * 
+     * @param c   case to replay, its path must already be profiled
+     * @param out result the outcome is written into
+     * @return the out result
+     */
+    public ReplayResult replay(final ReplayCase c, final ReplayResult out) {
+        final DriveCharacterization dc = c.driveCharacterization;
+        final PurePursuitController controller = new PurePursuitController(c.path.fork(), dc, c.lookAheadDistance);
+        final DriveCommand command = new DriveCommand(0, 0);
+        try (FileChannel channel = FileChannel.open(c.file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer b = ByteBuffer.allocate(ReplayWriter.RECORD_SIZE * CHUNK_RECORDS)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            b.limit(ReplayWriter.HEADER_SIZE);
+            while (b.hasRemaining() && channel.read(b) >= 0)
+                ;
+            b.flip();
+            if (b.remaining() < ReplayWriter.HEADER_SIZE || b.getInt() != ReplayWriter.MAGIC
+                    || b.getInt() != ReplayWriter.VERSION || b.getInt() != ReplayWriter.RECORD_SIZE)
+                throw new IOException("not a replay file: " + c.file);
+            final Pose pose = new Pose(b.getDouble(), b.getDouble(), b.getDouble());
+            b.clear();
+            while (channel.read(b) >= 0 || b.position() > 0) {
+                b.flip();
+                while (b.remaining() >= ReplayWriter.RECORD_SIZE) {
+                    b.getLong();
+                    final double deltaLeft = b.getDouble();
+                    final double deltaRight = b.getDouble();
+                    final double gyro = b.getDouble();
+                    if (Double.isNaN(gyro))
+                        pose.update(dc, deltaLeft, deltaRight);
+                    else
+                        pose.update(gyro, deltaLeft, deltaRight);
+                    final double dx = pose.x - b.getDouble();
+                    final double dy = pose.y - b.getDouble();
+                    b.getDouble();
+                    controller.pursuit_path(pose, command);
+                    final double error = Math.max(Math.abs(command.left_command - b.getDouble()),
+                            Math.abs(command.right_command - b.getDouble()));
+                    out.maxPoseError = Math.max(out.maxPoseError, Math.sqrt(dx * dx + dy * dy));
+                    out.maxCommandError = Math.max(out.maxCommandError, error);
+                    if (!(error <= tolerance)) {
+                        if (out.mismatches++ == 0)
+                            out.firstMismatch = out.ticks;
+                    }
+                    out.ticks++;
+                }
+                if (b.hasRemaining() && channel.position() == channel.size())
+                    throw new IOException("replay file ends in a partial record: " + c.file);
+                b.compact();
+            }
+        } catch (final IOException e) {
+            out.error = e;
+        }
+        return out;
+    }
+}
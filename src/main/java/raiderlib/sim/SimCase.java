@@ -0,0 +1,51 @@
+package raiderlib.sim;
+
+import raiderlib.control.DriveCharacterization;
+import raiderlib.path.Path;
+
+/**
+ * This class is used to describe one simulated run of a path: the path, the
+ * drive characterization of the robot and the lookahead distance of its
+ * controller, with optional noise on the distance each wheel travels
+ */
+public class SimCase {
+
+    final Path path;
+    final DriveCharacterization driveCharacterization;
+    final double lookAheadDistance;
+    final double noise;
+    final long seed;
+
+    /**
+     * Constructor for SimCase class
+     * 
+     * @param path                  path to follow, all of its points must be
+     *                              generated
+     * @param driveCharacterization characterization of the simulated drivetrain
+     * @param lookAheadDistance     max lookahead distance of the controller
+     */
+    public SimCase(final Path path, final DriveCharacterization driveCharacterization,
+            final double lookAheadDistance) {
+        this(path, driveCharacterization, lookAheadDistance, 0, 0);
+    }
+
+    /**
+     * Constructor for SimCase class
+     * 
+     * @param path                  path to follow, all of its points must be
+     *                              generated
+     * @param driveCharacterization characterization of the simulated drivetrain
+     * @param lookAheadDistance     max lookahead distance of the controller
+     * @param noise                 standard deviation of the wheel distance error,
+     *                              as a fraction of the commanded distance
+     * @param seed                  seed of the random wheel errors
+     */
+    public SimCase(final Path path, final DriveCharacterization driveCharacterization,
+            final double lookAheadDistance, final double noise, final long seed) {
+        this.path = path;
+        this.driveCharacterization = driveCharacterization;
+        this.lookAheadDistance = lookAheadDistance;
+        this.noise = noise;
+        this.seed = seed;
+    }
+}
@@ -0,0 +1,13 @@
+package raiderlib.sim;
+
+/**
+ * This class is used to hold the outcome of one simulated run
+ */
+public class SimResult {
+    public boolean finished;
+    public int ticks;
+    public double time;
+    public double maxError;
+    public double meanError;
+    public double endError;
+}
@@ -0,0 +1,49 @@
+package raiderlib.sim;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class is used to simulate a range of cases on a fork-join pool. The
+ * range is split in half until it is small enough to run directly
+ */
+class SimTask extends RecursiveAction {
+
+    static final long serialVersionUID = 1L;
+    static final int GRAIN = 4;
+
+    final BatchSimulator simulator;
+    final SimCase[] cases;
+    final SimResult[] results;
+    final int from;
+    final int to;
+
+    /**
+     * Constructor for SimTask class
+     * 
+     * @param simulator simulator running the cases
+     * @param cases     cases to simulate, with their paths already profiled
+     * @param results   array the results are stored in
+     * @param from      index of the first case
+     * @param to        index after the last case
+     */
+    SimTask(final BatchSimulator simulator, final SimCase[] cases, final SimResult[] results, final int from,
+            final int to) {
+        this.simulator = simulator;
+        this.cases = cases;
+        this.results = results;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from > GRAIN) {
+            final int mid = (from + to) >>> 1;
+            invokeAll(new SimTask(simulator, cases, results, from, mid),
+                    new SimTask(simulator, cases, results, mid, to));
+            return;
+        }
+        for (int i = from; i < to; i++)
+            results[i] = simulator.simulate(cases[i], new SimResult());
+    }
+}
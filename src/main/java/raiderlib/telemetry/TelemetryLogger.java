@@ -0,0 +1,237 @@
+package raiderlib.telemetry;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+import raiderlib.control.DriveCommand;
+import raiderlib.control.PurePursuitController;
+import raiderlib.geometry.Point;
+import raiderlib.geometry.Pose;
+
+/**
+ * This class is used to record the state of every controller tick to a file
+ * without slowing the control loop down. Each tick is written as a fixed size
+ * binary record into a preallocated ring, and a background thread writes the
+ * ring to the file. Only one thread should call log. Logging never allocates
+ * or blocks, and when the ring is full the record is dropped and counted
+ * instead
+ * 
+ * The file holds a header (magic, version, record size) followed by the
+ * records: time, x, y, theta, closest index, lookahead index, lookahead x,
+ * lookahead y, curvature, left command and right command. All values are
+ * little endian. Convert a file for analysis with to_csv
+ */
+public class TelemetryLogger implements AutoCloseable {
+
+    static final int MAGIC = 0x524C544C;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 12;
+    static final int RECORD_SIZE = 80;
+    static final long DRAIN_INTERVAL = 5_000_000;
+
+    final FileChannel channel;
+    final ByteBuffer ring;
+    final ByteBuffer view;
+    final int capacity;
+    final Thread thread;
+    volatile long head;
+    volatile long tail;
+    volatile long dropped;
+    volatile boolean open = true;
+    volatile IOException failure;
+
+    /**
+     * Constructor for TelemetryLogger class
+     * 
+     * @param file     file to write, it is replaced if it exists
+     * @param capacity number of records the ring holds before records are
+     *                 dropped
+     * @throws IOException if the file can not be created
+     */
+    public TelemetryLogger(final File file, final int capacity) throws IOException {
+        this.capacity = capacity;
+        ring = ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        view = ring.duplicate();
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).flip();
+        while (header.hasRemaining())
+            channel.write(header);
+        thread = new Thread(this::drain, "raiderlib-telemetry");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * This method logs one tick
+     * 
+     * @param timeNanos      time of the tick in nanoseconds
+     * @param x              x coordinate of the robot
+     * @param y              y coordinate of the robot
+     * @param theta          heading of the robot in radians
+     * @param closestPoint   index of the closest point
+     * @param lookAheadPoint index of the lookahead point
+     * @param lookAheadX     x coordinate of the lookahead point
+     * @param lookAheadY     y coordinate of the lookahead point
+     * @param curvature      curvature of the commanded arc
+     * @param left           left command
+     * @param right          right command
+     * @return a boolean of whether the record was logged, it is dropped if the
+     *         ring is full
+     */
+    public boolean log(final long timeNanos, final double x, final double y, final double theta,
+            final int closestPoint, final int lookAheadPoint, final double lookAheadX, final double lookAheadY,
+            final double curvature, final double left, final double right) {
+        final long tail = this.tail;
+        if (tail - head >= capacity) {
+            dropped++;
+            return false;
+        }
+        final int i = (int) (tail % capacity) * RECORD_SIZE;
+        ring.putLong(i, timeNanos);
+        ring.putDouble(i + 8, x);
+        ring.putDouble(i + 16, y);
+        ring.putDouble(i + 24, theta);
+        ring.putInt(i + 32, closestPoint);
+        ring.putInt(i + 36, lookAheadPoint);
+        ring.putDouble(i + 40, lookAheadX);
+        ring.putDouble(i + 48, lookAheadY);
+        ring.putDouble(i + 56, curvature);
+        ring.putDouble(i + 64, left);
+        ring.putDouble(i + 72, right);
+        this.tail = tail + 1;
+        return true;
+    }
+
+    /**
+     * This method logs the last tick of a controller
+     * 
+     * @param timeNanos  time of the tick in nanoseconds
+     * @param pose       pose the controller was given
+     * @param controller controller after the tick
+     * @param command    command the controller returned
+     * @return a boolean of whether the record was logged, it is dropped if the
+     *         ring is full
+     */
+    public boolean log(final long timeNanos, final Pose pose, final PurePursuitController controller,
+            final DriveCommand command) {
+        final Point lookAhead = controller.get_lookAhead();
+        return log(timeNanos, pose.x, pose.y, pose.theta, controller.get_closest_point(),
+                controller.get_lookAhead_index(), lookAhead.x, lookAhead.y, controller.get_curvature(),
+                command.left_command, command.right_command);
+    }
+
+    /**
+     * This method returns the number of records dropped because the ring was full
+     * 
+     * @return number of dropped records
+     */
+    public long get_dropped() {
+        return dropped;
+    }
+
+    /**
+     * This method returns the number of records written to the file
+     * 
+     * @return number of written records
+     */
+    public long get_written() {
+        return head;
+    }
+
+    /**
+     * This method writes the remaining records and closes the file
+     * 
+     * @throws IOException if the records could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (!open)
+            return;
+        open = false;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        channel.close();
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * This method writes records to the file until the logger is closed and every
+     * record is written
+     */
+    void drain() {
+        try {
+            while (true) {
+                final boolean open = this.open;
+                final long tail = this.tail;
+                if (tail == head) {
+                    if (!open)
+                        return;
+                    LockSupport.parkNanos(DRAIN_INTERVAL);
+                    continue;
+                }
+                final int start = (int) (head % capacity);
+                final int count = (int) Math.min(tail - head, capacity - start);
+                view.limit((start + count) * RECORD_SIZE).position(start * RECORD_SIZE);
+                while (view.hasRemaining())
+                    channel.write(view);
+                head += count;
+            }
+        } catch (final IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * This method converts a telemetry file to CSV with a header row
+     * 
+     * @param in  telemetry file to read
+     * @param out CSV file to write
+     * @throws IOException if the files can not be read or written, or the
+     *                     telemetry file is not valid
+     */
+    public static void to_csv(final File in, final File out) throws IOException {
+        try (FileChannel channel = FileChannel.open(in.toPath(), StandardOpenOption.READ);
+                BufferedWriter writer = Files.newBufferedWriter(out.toPath())) {
+            final ByteBuffer b = ByteBuffer.allocate(RECORD_SIZE * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            b.limit(HEADER_SIZE);
+            while (b.hasRemaining() && channel.read(b) >= 0)
+                ;
+            b.flip();
+            if (b.remaining() < HEADER_SIZE || b.getInt() != MAGIC || b.getInt() != VERSION
+                    || b.getInt() != RECORD_SIZE)
+                throw new IOException("not a telemetry file: " + in);
+            writer.write("time,x,y,theta,closest,lookahead,lookahead_x,lookahead_y,curvature,left,right\n");
+            b.clear();
+            while (channel.read(b) >= 0 || b.position() > 0) {
+                b.flip();
+                while (b.remaining() >= RECORD_SIZE) {
+                    writer.write(b.getLong() + "," + b.getDouble() + "," + b.getDouble() + "," + b.getDouble()
+                            + "," + b.getInt() + "," + b.getInt() + "," + b.getDouble() + "," + b.getDouble()
+                            + "," + b.getDouble() + "," + b.getDouble() + "," + b.getDouble() + "\n");
+                }
+                if (b.hasRemaining() && channel.position() == channel.size())
+                    throw new IOException("telemetry file ends in a partial record: " + in);
+                b.compact();
+            }
+        }
+    }
+}
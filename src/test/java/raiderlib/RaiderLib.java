@@ -3,15 +3,67 @@ package raiderlib;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.junit.Test;
 
+import raiderlib.control.CentripetalConstraint;
+import raiderlib.control.CommandHandoff;
+import raiderlib.control.ControlLoop;
+import raiderlib.control.ControllerMetrics;
+import raiderlib.control.ControllerState;
 import raiderlib.control.DriveCharacterization;
+import raiderlib.control.DriveCommand;
+import raiderlib.control.LoopStats;
+import raiderlib.control.MetricsSnapshot;
+import raiderlib.control.OdometryUpdater;
 import raiderlib.control.PurePursuitController;
+import raiderlib.control.RegionConstraint;
+import raiderlib.control.VelocityProfiler;
+import raiderlib.control.WheelConstraint;
+import raiderlib.geometry.Odometry;
+import raiderlib.geometry.Point;
+import raiderlib.geometry.Pose;
+import raiderlib.geometry.PoseHistory;
+import raiderlib.geometry.Rotation;
+import raiderlib.geometry.SharedPose;
+import raiderlib.path.CompositePath;
+import raiderlib.path.EditablePath;
 import raiderlib.path.Path;
+import raiderlib.path.PathBuilder;
+import raiderlib.path.PathCache;
+import raiderlib.path.PathFile;
+import raiderlib.path.PathIndex;
+import raiderlib.path.PathSegment;
+import raiderlib.path.StreamingPath;
+import raiderlib.path.TrajBuffer;
 import raiderlib.path.TrajPoint;
+import raiderlib.path.WayPoint;
+import raiderlib.path.WayPointPath;
+import raiderlib.paths.CurveLine;
 import raiderlib.paths.StraightLine;
+import raiderlib.sim.BatchSimulator;
+import raiderlib.sim.ReplayCase;
+import raiderlib.sim.ReplayResult;
+import raiderlib.sim.ReplayWriter;
+import raiderlib.sim.Replayer;
+import raiderlib.sim.SimCase;
+import raiderlib.sim.SimResult;
+import raiderlib.telemetry.TelemetryLogger;
 
 public class RaiderLib {
 
@@ -26,4 +78,819 @@ public class RaiderLib {
                     + ',' + String.valueOf(point.curvature) + '\n');
         fout.close();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAllocationFree() {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        final long id = Thread.currentThread().getId();
+        final DriveCharacterization dc = new DriveCharacterization(10, 14, 50);
+        final Path path = new CurveLine();
+        final PurePursuitController recorder = new PurePursuitController(path, dc, 5);
+        final Pose pose = new Pose(0, 0, 0);
+        final DriveCommand command = new DriveCommand(0, 0);
+        final List<Pose> poses = new ArrayList<>();
+        while (!recorder.is_finished() && poses.size() < 3000) {
+            poses.add(new Pose(pose.x, pose.y, pose.theta));
+            recorder.pursuit_path(pose, command);
+            pose.update(dc, command.left_command * 0.01, command.right_command * 0.01);
+        }
+        final Pose[] ticks = poses.toArray(new Pose[0]);
+        for (int round = 0; round < 20; round++) {
+            final PurePursuitController warm = new PurePursuitController(path, dc, 5);
+            for (final Pose p : ticks)
+                warm.pursuit_path(p, command);
+        }
+        final PurePursuitController controller = new PurePursuitController(path, dc, 5);
+        controller.pursuit_path(ticks[0], command);
+        final long start = threads.getThreadAllocatedBytes(id);
+        final long overhead = threads.getThreadAllocatedBytes(id) - start;
+        final long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 1; i < ticks.length; i++)
+            controller.pursuit_path(ticks[i], command);
+        final long after = threads.getThreadAllocatedBytes(id);
+        assertTrue(after - before <= overhead);
+    }
+
+    @Test
+    public void testPathSpacing() {
+        final double spacing = 2;
+        final ArrayList<WayPoint> waypoints = new ArrayList<>();
+        waypoints.add(new WayPoint(0, 0, 0));
+        waypoints.add(new WayPoint(40, 30, Math.PI / 2));
+        waypoints.add(new WayPoint(10, 60, Math.PI));
+        final Path path = new WayPointPath(waypoints, spacing);
+        final TrajBuffer points = path.get_buffer();
+        assertEquals(0, points.x[0], 0);
+        assertEquals(0, points.y[0], 0);
+        int start = 0;
+        for (int j = 1; j < waypoints.size(); j++) {
+            final int end = start + new PathSegment(waypoints.get(j - 1), waypoints.get(j), spacing).get_size();
+            final double first = points.dist(start, start + 1);
+            for (int i = start; i < end; i++) {
+                final double chord = points.dist(i, i + 1);
+                assertTrue(chord <= spacing);
+                assertEquals(first, chord, 0.01 * spacing);
+            }
+            assertEquals(waypoints.get(j).x, points.x[end], 1e-9);
+            assertEquals(waypoints.get(j).y, points.y[end], 1e-9);
+            start = end;
+        }
+        assertEquals(points.size - 1, start);
+
+        for (final double invalid : new double[] { 0, -1, Double.NaN }) {
+            try {
+                new WayPointPath(waypoints, invalid);
+                fail();
+            } catch (final IllegalArgumentException e) {
+            }
+        }
+    }
+
+    @Test
+    public void testCurvature() {
+        final TrajBuffer line = new StraightLine().get_buffer();
+        for (int i = 0; i < line.size; i++)
+            assertEquals(0, line.curvature[i], 0);
+
+        final double r = 20;
+        final double k = 4 * (Math.sqrt(2) - 1) * r;
+        final PathSegment quarter = new PathSegment(new WayPoint(r, 0, new Point(0, k)),
+                new WayPoint(0, r, new Point(-k, 0)));
+        for (final TrajPoint p : quarter.get_points()) {
+            assertEquals(r, Math.sqrt(p.x * p.x + p.y * p.y), 0.01 * r);
+            assertEquals(1 / r, p.curvature, 0.03 / r);
+        }
+    }
+
+    @Test
+    public void testPathFile() throws IOException {
+        final DriveCharacterization dc = new DriveCharacterization(14, 14, 50);
+        final File file = File.createTempFile("curve", ".path");
+        file.delete();
+        final Path generated = PathFile.load(file, new CurveLine().get_waypoints(), dc);
+        final Path loaded = PathFile.load(file, new CurveLine().get_waypoints(), dc);
+        final TrajBuffer g = generated.get_buffer();
+        final TrajBuffer l = loaded.get_buffer();
+        assertEquals(g.size, l.size);
+        assertArrayEquals(g.x, l.x, 0);
+        assertArrayEquals(g.y, l.y, 0);
+        assertArrayEquals(g.curvature, l.curvature, 0);
+        assertArrayEquals(g.velocity, l.velocity, 0);
+        assertEquals(dc, loaded.get_profile());
+        final DriveCharacterization changed = new DriveCharacterization(10, 14, 50);
+        assertNull(PathFile.read(file, PathFile.checksum(new CurveLine().get_waypoints(), changed)));
+
+        final ArrayList<WayPoint> waypoints = new ArrayList<>();
+        waypoints.add(new WayPoint(0, 0));
+        waypoints.add(new WayPoint(30, 10));
+        waypoints.add(new WayPoint(60, 0));
+        final long checksum = PathFile.checksum(waypoints, dc);
+        PathFile.load(file, waypoints, dc);
+        assertEquals(checksum, PathFile.checksum(waypoints, dc));
+        assertTrue(file.setLastModified(1000));
+        final Path hit = PathFile.load(file, waypoints, dc);
+        assertEquals(1000, file.lastModified());
+        assertEquals(dc, hit.get_profile());
+
+        final Path coarse = PathFile.load(file, waypoints, dc, 2);
+        assertEquals(2, coarse.get_spacing(), 0);
+        assertTrue(coarse.get_size() < hit.get_size());
+        assertNull(PathFile.read(file, checksum));
+        assertEquals(2, PathFile.read(file, PathFile.checksum(waypoints, dc, 2), 2).get_spacing(), 0);
+        final Path wide = new WayPointPath(new CurveLine().get_waypoints(), 6);
+        PurePursuitController.profile(wide, dc);
+        PathFile.write(file, wide, PathFile.checksum(new CurveLine().get_waypoints(), dc));
+        assertNull(PathFile.read(file, PathFile.checksum(new CurveLine().get_waypoints(), dc)));
+        assertEquals(0, file.getParentFile().listFiles((dir, name) -> name.startsWith(file.getName() + ".tmp")).length);
+        file.delete();
+    }
+
+    @Test
+    public void testPathIndex() {
+        final Random random = new Random(4);
+        final double cellSize = 4;
+        final TrajBuffer points = new TrajBuffer(400);
+        double x = 0, y = 0;
+        for (int i = 0; i < 400; i++) {
+            x += 3 * random.nextGaussian();
+            y += 3 * random.nextGaussian();
+            points.add(x, y);
+        }
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < points.size; i++) {
+            minX = Math.min(minX, points.x[i]);
+            minY = Math.min(minY, points.y[i]);
+            maxX = Math.max(maxX, points.x[i]);
+            maxY = Math.max(maxY, points.y[i]);
+        }
+        for (int i = 0; i < points.size; i += 5) {
+            points.x[i] = minX + cellSize * Math.floor((points.x[i] - minX) / cellSize);
+            points.y[i] = minY + cellSize * Math.floor((points.y[i] - minY) / cellSize);
+        }
+        final PathIndex index = new PathIndex(points, cellSize);
+        for (int q = 0; q < 2000; q++) {
+            final double qx, qy;
+            if (q % 4 == 0) {
+                final int i = 5 * random.nextInt(points.size / 5);
+                qx = points.x[i];
+                qy = points.y[i];
+            } else if (q % 4 == 1) {
+                qx = (random.nextBoolean()) ? minX : maxX;
+                qy = minY + (maxY - minY) * random.nextDouble();
+            } else {
+                qx = minX - 10 + (maxX - minX + 20) * random.nextDouble();
+                qy = minY - 10 + (maxY - minY + 20) * random.nextDouble();
+            }
+            final int from = (q % 3 == 0) ? 0 : random.nextInt(points.size);
+            final int to = (q % 3 == 0) ? points.size : from + random.nextInt(points.size - from + 1);
+            final double minDist = (q % 2 == 0) ? 0 : 25 * random.nextDouble();
+            final double maxDist = minDist + 100 * random.nextDouble();
+            int closest = -1;
+            int last = -1;
+            double dist = Double.MAX_VALUE;
+            for (int i = from; i < to; i++) {
+                final double dx = points.x[i] - qx;
+                final double dy = points.y[i] - qy;
+                final double d = dx * dx + dy * dy;
+                if (d < dist) {
+                    dist = d;
+                    closest = i;
+                }
+                if (d >= minDist && d <= maxDist)
+                    last = i;
+            }
+            assertEquals(closest, index.find_closest(qx, qy, from, to));
+            assertEquals(last, index.find_last_within(qx, qy, minDist, maxDist, from, to));
+        }
+    }
+
+    @Test
+    public void testParallelGeneration() {
+        final Random random = new Random(75);
+        final ArrayList<WayPoint> waypoints = new ArrayList<>();
+        double x = 0;
+        for (int i = 0; i < 200; i++) {
+            x += 5 + 10 * random.nextDouble();
+            waypoints.add(new WayPoint(x, 8 * random.nextGaussian()));
+        }
+        final TrajBuffer points = new WayPointPath(waypoints).get_buffer();
+        final ArrayList<TrajPoint> expected = new ArrayList<>();
+        expected.add(new TrajPoint(waypoints.get(0).x, waypoints.get(0).y));
+        for (int i = 1; i < waypoints.size(); i++)
+            expected.addAll(new PathSegment(waypoints.get(i - 1), waypoints.get(i)).get_points());
+        assertEquals(expected.size(), points.size);
+        for (int i = 1; i < points.size; i++) {
+            assertEquals(expected.get(i).x, points.x[i], 0);
+            assertEquals(expected.get(i).y, points.y[i], 0);
+            assertEquals(expected.get(i).curvature, points.curvature[i], 0);
+        }
+    }
+
+    @Test
+    public void testStreamingPath() {
+        final DriveCharacterization dc = new DriveCharacterization(10, 14, 50);
+        final ArrayList<WayPoint> waypoints = new ArrayList<>();
+        for (int i = 0; i <= 20; i++)
+            waypoints.add(new WayPoint(10 * i, 3 * (i % 2), 0));
+        final double spacing = 0.5;
+        final double horizon = 20;
+        final StreamingPath path = new StreamingPath(waypoints, spacing, horizon);
+        assertFalse(path.is_complete());
+        try {
+            path.share_points();
+            fail();
+        } catch (final IllegalStateException e) {
+        }
+        final int firstSize = path.get_buffer().size;
+        final PurePursuitController controller = new PurePursuitController(path, dc, 5);
+        final int bound = 2 * (int) Math.ceil(horizon / spacing + 2 * firstSize) + 64;
+        final Pose pose = new Pose(0, 0, 0);
+        final DriveCommand command = new DriveCommand(0, 0);
+        int releases = 0;
+        for (int i = 0; i < 5000 && !controller.is_finished(); i++) {
+            final TrajBuffer before = path.get_buffer();
+            final int size = before.size;
+            final Point closest = new Point(before.x[controller.get_closest_point()],
+                    before.y[controller.get_closest_point()]);
+            controller.pursuit_path(pose, command);
+            final TrajBuffer points = path.get_buffer();
+            if (points.size < size)
+                releases++;
+            assertTrue(points.size <= bound);
+            final Point next = new Point(points.x[controller.get_closest_point()],
+                    points.y[controller.get_closest_point()]);
+            assertTrue(closest.dist(next) < 1);
+            assertTrue(pose.dist(next) < 2);
+            pose.update(dc, command.left_command * 0.01, command.right_command * 0.01);
+        }
+        assertTrue(releases > 0);
+        assertTrue(controller.is_finished());
+        assertTrue(path.is_complete());
+        assertEquals(200, pose.x, 1.5);
+        assertEquals(0, pose.y, 1.5);
+    }
+
+    @Test
+    public void testControllerMetrics() {
+        assertEquals(0, ControllerMetrics.get_bucket(-5));
+        assertEquals(0, ControllerMetrics.get_bucket(0));
+        for (int k = 0; k < ControllerMetrics.BUCKETS - 1; k++) {
+            final long limit = ControllerMetrics.get_bucket_limit(k);
+            assertEquals(1024L << k, limit);
+            assertEquals(k, ControllerMetrics.get_bucket(limit - 1));
+            assertEquals(k + 1, ControllerMetrics.get_bucket(limit));
+        }
+        assertEquals(ControllerMetrics.BUCKETS - 1, ControllerMetrics.get_bucket(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, ControllerMetrics.get_bucket_limit(ControllerMetrics.BUCKETS - 1));
+
+        final ControllerMetrics metrics = new ControllerMetrics();
+        for (int i = 0; i < 98; i++)
+            metrics.record(1500, 2, 3, 1, false);
+        metrics.record(5000, 2, 3, 1, false);
+        metrics.record(100_000, 2, 3, 0, true);
+        final MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(100, snapshot.ticks);
+        assertEquals(98, snapshot.latency[1]);
+        assertEquals(1, snapshot.latency[3]);
+        assertEquals(1, snapshot.latency[7]);
+        assertEquals(100_000, snapshot.maxLatency);
+        assertEquals(2520, snapshot.get_mean_latency(), 1e-9);
+        assertEquals(2048, snapshot.get_latency_percentile(0.5));
+        assertEquals(8192, snapshot.get_latency_percentile(0.99));
+        assertEquals(100_000, snapshot.get_latency_percentile(1));
+        assertEquals(5, snapshot.get_mean_scanned(), 1e-9);
+        assertEquals(99, snapshot.lookAheadAdvance);
+        assertEquals(1, snapshot.lookAheadMisses);
+        metrics.reset();
+        assertSame(snapshot, metrics.snapshot(snapshot));
+        assertEquals(0, snapshot.ticks);
+        assertEquals(0, snapshot.latency[1]);
+        assertEquals(0, snapshot.get_latency_percentile(0.5));
+    }
+
+    @Test
+    public void testEditablePath() {
+        final DriveCharacterization dc = new DriveCharacterization(14, 14, 50);
+        final Random random = new Random(11);
+        final ArrayList<WayPoint> waypoints = new ArrayList<>();
+        final ArrayList<WayPoint> moved = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            final double y = 8 * random.nextGaussian();
+            waypoints.add(new WayPoint(12 * i, y));
+            moved.add(new WayPoint(12 * i, (i == 20) ? y + 6 : y));
+        }
+        final EditablePath path = new EditablePath(waypoints);
+        path.build_index(5);
+        assertNull(path.get_index());
+        PurePursuitController.profile(path, dc);
+        path.set_waypoint(20, new WayPoint(12 * 20, waypoints.get(20).y + 6));
+        final Path expected = new WayPointPath(moved);
+        PurePursuitController.profile(expected, dc);
+        final TrajBuffer a = path.get_buffer();
+        final TrajBuffer b = expected.get_buffer();
+        assertEquals(b.size, a.size);
+        for (int i = 0; i < a.size; i++) {
+            assertEquals(b.x[i], a.x[i], 1e-9);
+            assertEquals(b.y[i], a.y[i], 1e-9);
+            assertEquals(b.velocity[i], a.velocity[i], 1e-9);
+        }
+    }
+
+    @Test
+    public void testSampling() {
+        final Path path = new CurveLine();
+        PurePursuitController.profile(path, new DriveCharacterization(14, 14, 50));
+        final TrajBuffer points = path.get_buffer();
+        for (int i = 0; i < points.size; i++) {
+            final TrajPoint byTime = path.sample_time(points.time[i]);
+            final TrajPoint byDistance = path.sample_distance(points.distance[i]);
+            assertEquals(points.x[i], byTime.x, 1e-9);
+            assertEquals(points.y[i], byTime.y, 1e-9);
+            assertEquals(points.x[i], byDistance.x, 1e-9);
+            assertEquals(points.y[i], byDistance.y, 1e-9);
+        }
+        final TrajPoint end = path.sample_time(path.get_duration() + 1);
+        assertEquals(points.x[points.size - 1], end.x, 0);
+        assertEquals(points.y[points.size - 1], end.y, 0);
+    }
+
+    @Test
+    public void testVelocityConstraints() {
+        final DriveCharacterization dc = new DriveCharacterization(14, 14, 5);
+        final Path path = new CurveLine();
+        PurePursuitController.profile(path, new VelocityProfiler(dc, new CentripetalConstraint(10),
+                new WheelConstraint(dc), new RegionConstraint(0, 0, 12, 12, 6)));
+        final TrajBuffer points = path.get_buffer();
+        for (int i = 1; i < points.size; i++) {
+            final double v = points.velocity[i];
+            assertTrue(v * v * points.curvature[i] <= 10 + 1e-9);
+            final double left = v * (2 + points.curvature[i] * dc.trackWidth);
+            final double right = v * (2 - points.curvature[i] * dc.trackWidth);
+            assertTrue(Math.max(Math.abs(left), Math.abs(right)) <= dc.maxVelocity + 1e-9);
+            if (points.x[i] >= 0 && points.x[i] <= 12 && points.y[i] >= 0 && points.y[i] <= 12)
+                assertTrue(v <= 6 + 1e-9);
+        }
+    }
+
+    @Test
+    public void testBatchSimulator() {
+        final Path path = new CurveLine();
+        final List<SimCase> cases = new ArrayList<>();
+        for (int i = 0; i < 16; i++)
+            cases.add(new SimCase(path, new DriveCharacterization(10 + i % 4, 14, 50), 5));
+        final SimResult[] results = new BatchSimulator(0.01, 30).run(cases);
+        assertNull(path.get_profile());
+        for (int i = 0; i < results.length; i++) {
+            assertTrue(results[i].finished);
+            assertEquals(results[i % 4].ticks, results[i].ticks);
+            assertEquals(results[i % 4].meanError, results[i].meanError, 0);
+        }
+    }
+
+    @Test
+    public void testOdometry() {
+        final DriveCharacterization dc = new DriveCharacterization(14, 14, 20);
+        final Odometry midpoint = new Odometry(dc);
+        final Odometry exact = new Odometry(dc.trackWidth, true);
+        final Pose pose = new Pose(0, 0, 0);
+        final double[] left = new double[100];
+        final double[] right = new double[100];
+        for (int i = 0; i < 100; i++) {
+            left[i] = 0.1;
+            right[i] = 0.3;
+            pose.update(dc, left[i], right[i]);
+        }
+        midpoint.update(left, right, 100);
+        exact.update(left, right, 100);
+        final Pose out = midpoint.get_pose(new Pose(0, 0, 0));
+        assertEquals(pose.x, out.x, 0);
+        assertEquals(pose.y, out.y, 0);
+        assertEquals(pose.theta, out.theta, 0);
+        final double radius = dc.trackWidth * (0.1 + 0.3) / (2 * (0.3 - 0.1));
+        final double theta = 100 * (0.3 - 0.1) / dc.trackWidth;
+        exact.get_pose(out);
+        assertEquals(radius * Math.sin(theta), out.x, 1e-9);
+        assertEquals(radius * (1 - Math.cos(theta)), out.y, 1e-9);
+        assertEquals(theta, out.theta, 1e-12);
+    }
+
+    @Test
+    public void testPoseHistory() {
+        final PoseHistory history = new PoseHistory(50);
+        for (int i = 0; i < 80; i++)
+            history.add(0.01 * i, i, 0, 0);
+        final Pose pose = new Pose(0, 0, 0);
+        assertEquals(50, history.get_size());
+        assertFalse(history.get_pose(0.2, pose));
+        assertTrue(history.get_pose(0.455, pose));
+        assertEquals(45.5, pose.x, 1e-9);
+        assertTrue(history.correct(0.6, 60, 1, Math.PI / 2));
+        history.get_pose(0.5, pose);
+        assertEquals(50, pose.x, 1e-9);
+        assertEquals(0, pose.y, 1e-9);
+        history.get_latest(pose);
+        assertEquals(60, pose.x, 1e-9);
+        assertEquals(20, pose.y, 1e-9);
+        assertEquals(Math.PI / 2, pose.theta, 1e-9);
+    }
+
+    @Test
+    public void testSharedPose() throws InterruptedException {
+        final SharedPose shared = new SharedPose(0, 0, 0);
+        final Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 100_000; i++)
+                shared.set(i, 2 * i, 3 * i);
+        });
+        writer.start();
+        final Pose read = new Pose(0, 0, 0);
+        while (read.x < 100_000) {
+            shared.get(read);
+            assertEquals(2 * read.x, read.y, 0);
+            assertEquals(3 * read.x, read.theta, 0);
+        }
+        writer.join();
+
+        final DriveCharacterization dc = new DriveCharacterization(10, 14, 50);
+        final ArrayList<WayPoint> waypoints = new ArrayList<>();
+        waypoints.add(new WayPoint(0, 0, 0));
+        waypoints.add(new WayPoint(40, 20, Math.PI / 2));
+        final PurePursuitController published = new PurePursuitController(new WayPointPath(waypoints), dc, 5);
+        final PurePursuitController direct = new PurePursuitController(new WayPointPath(waypoints), dc, 5);
+        published.set_publish_state(true);
+        final ControllerState state = new ControllerState();
+        assertEquals(0, published.get_state(state).ticks);
+        final Odometry odometry = new Odometry(dc);
+        final Pose pose = new Pose(0, 0, 0);
+        final DriveCommand command = new DriveCommand(0, 0);
+        final DriveCommand expected = new DriveCommand(0, 0);
+        int ticks = 0;
+        while (!published.is_finished() && ticks < 2000) {
+            published.pursuit_path(odometry.get_shared_pose(), command);
+            direct.pursuit_path(odometry.get_pose(pose), expected);
+            ticks++;
+            assertEquals(expected.left_command, command.left_command, 0);
+            assertEquals(expected.right_command, command.right_command, 0);
+            published.get_state(state);
+            assertEquals(ticks, state.ticks);
+            assertEquals(published.is_finished(), state.finished);
+            assertEquals(published.get_closest_point(), state.closestPoint);
+            assertEquals(published.get_lookAhead().x, state.lookAheadX, 0);
+            assertEquals(published.get_lookAhead().y, state.lookAheadY, 0);
+            assertEquals(command.left_command, state.leftCommand, 0);
+            assertEquals(command.right_command, state.rightCommand, 0);
+            assertEquals(published.get_remaining_distance(), state.remainingDistance, 0);
+            assertEquals(published.get_remaining_time(), state.remainingTime, 0);
+            odometry.update(command.left_command * 0.01, command.right_command * 0.01);
+        }
+        assertTrue(state.finished);
+        assertEquals(40, odometry.get_pose(pose).x, 1.5);
+        assertEquals(0, direct.get_state(state).ticks);
+    }
+
+    @Test
+    public void testRotation() {
+        final Rotation r = new Rotation(0.3);
+        for (int i = 0; i < 1000; i++)
+            r.rotate(0.002);
+        assertEquals(2.3, r.get_theta(), 1e-12);
+        assertEquals(Math.cos(2.3), r.get_cos(), 1e-12);
+        assertEquals(Math.sin(2.3), r.get_sin(), 1e-12);
+        final PurePursuitController ppc = new PurePursuitController(new DriveCharacterization(14, 14, 50), 5);
+        final DriveCommand ahead = ppc.pursuit_point(new Point(0, 10), new Pose(0, 0, Math.PI / 2), 5);
+        assertEquals(ahead.left_command, ahead.right_command, 1e-9);
+    }
+
+    @Test
+    public void testTelemetry() throws IOException {
+        final File file = File.createTempFile("telemetry", ".bin");
+        final File csv = File.createTempFile("telemetry", ".csv");
+        final TelemetryLogger logger = new TelemetryLogger(file, 1024);
+        for (int i = 0; i < 100; i++)
+            assertTrue(logger.log(i, i, 2 * i, 0, i, i + 5, i + 5, 0, 0.1, 3, 4));
+        logger.close();
+        assertEquals(100, logger.get_written());
+        assertEquals(0, logger.get_dropped());
+        TelemetryLogger.to_csv(file, csv);
+        final List<String> lines = Files.readAllLines(csv.toPath());
+        assertEquals(101, lines.size());
+        assertEquals("99,99.0,198.0,0.0,99,104,104.0,0.0,0.1,3.0,4.0", lines.get(100));
+
+        final TelemetryLogger small = new TelemetryLogger(file, 4);
+        final int attempts = 100_000;
+        int refused = 0;
+        for (int i = 0; i < attempts; i++)
+            if (!small.log(i, i, 0, 0, i, i, i, 0, 0, 0, 0))
+                refused++;
+        small.close();
+        assertTrue(refused > 0);
+        assertEquals(refused, small.get_dropped());
+        assertEquals(attempts, small.get_written() + small.get_dropped());
+        assertEquals(12 + 80 * small.get_written(), file.length());
+        file.delete();
+        csv.delete();
+    }
+
+    @Test
+    public void testControlLoop() throws InterruptedException {
+        final DriveCharacterization dc = new DriveCharacterization(10, 14, 50);
+        final CommandHandoff handoff = new CommandHandoff();
+        final DriveCommand out = new DriveCommand(0, 0);
+        assertFalse(handoff.take(out));
+        handoff.publish(1, 2);
+        assertTrue(handoff.take(out));
+        assertEquals(1, out.left_command, 0);
+        assertEquals(2, out.right_command, 0);
+        assertFalse(handoff.take(out));
+
+        final long period = 1_000_000;
+        final long[] time = { 0 };
+        final long[] grid = { 0 };
+        final List<Long> ticks = new ArrayList<>();
+        final List<Long> controls = new ArrayList<>();
+        final ControlLoop[] loop = new ControlLoop[1];
+        final CountDownLatch last = new CountDownLatch(1);
+        final PurePursuitController controller = new PurePursuitController(dc, 5) {
+            @Override
+            public DriveCommand pursuit_path(final Pose currPose, final DriveCommand output) {
+                controls.add(grid[0]);
+                output.copy(1, 1);
+                return output;
+            }
+        };
+        final OdometryUpdater updater = odometry -> {
+            grid[0] = (time[0] - 100_000) / period;
+            ticks.add(grid[0]);
+            if (ticks.size() == 5)
+                time[0] += 2_500_000;
+            if (ticks.size() == 12) {
+                last.countDown();
+                while (loop[0].is_running())
+                    Thread.onSpinWait();
+            }
+        };
+        loop[0] = new ControlLoop(controller, new Odometry(dc), updater, handoff, period, 3,
+                () -> time[0] += 100_000);
+        loop[0].start();
+        last.await();
+        loop[0].stop();
+        assertTrue(handoff.take(out));
+        assertEquals(0, out.left_command, 0);
+        assertEquals(0, out.right_command, 0);
+
+        final List<Long> expected = new ArrayList<>();
+        for (final long tick : ticks)
+            if (tick % 3 == 0)
+                expected.add(tick);
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 7L, 8L, 9L, 10L, 11L, 12L, 13L), ticks);
+        assertEquals(expected, controls);
+        final LoopStats stats = loop[0].get_stats(new LoopStats());
+        assertEquals(12, stats.ticks);
+        assertEquals(expected.size(), stats.controlTicks);
+        assertEquals(1, stats.overruns);
+        assertEquals(2, stats.missedTicks);
+        assertEquals(2_600_000, stats.maxWork);
+
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final int[] calls = { 0 };
+        final ControlLoop self = new ControlLoop(controller, new Odometry(dc), odometry -> {
+            if (++calls[0] == 3) {
+                try {
+                    loop[0].stop();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                stopped.countDown();
+            }
+        }, handoff, period, 1);
+        loop[0] = self;
+        self.start();
+        stopped.await();
+        self.stop();
+        assertFalse(self.is_running());
+        assertEquals(3, self.get_stats(new LoopStats()).ticks);
+        assertTrue(handoff.take(out));
+        assertEquals(0, out.left_command, 0);
+    }
+
+    @Test
+    public void testReplay() throws IOException {
+        final Path path = new CurveLine();
+        final DriveCharacterization dc = new DriveCharacterization(10, 14, 50);
+        final Path recorded = path.share_points();
+        PurePursuitController.profile(recorded, dc);
+        final PurePursuitController controller = new PurePursuitController(recorded, dc, 5);
+        final File file = File.createTempFile("replay", ".bin");
+        final Pose pose = new Pose(0, 0, 0);
+        final DriveCommand command = new DriveCommand(0, 0);
+        try (ReplayWriter writer = new ReplayWriter(file, pose)) {
+            for (int i = 0; i < 2000 && !controller.is_finished(); i++) {
+                final double left = command.left_command * 0.01;
+                final double right = command.right_command * 0.01;
+                pose.update(dc, left, right);
+                controller.pursuit_path(pose, command);
+                writer.record(i * 10_000_000L, left, right, Double.NaN, pose, command);
+            }
+        }
+        final List<ReplayCase> cases = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            cases.add(new ReplayCase(file, path, dc, 5));
+        cases.add(new ReplayCase(file, path, dc, 3));
+        final ReplayResult[] results = new Replayer(1e-9).run(cases);
+        assertNull(path.get_profile());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(results[i].is_match());
+            assertTrue(results[i].ticks > 100);
+            assertEquals(0, results[i].maxPoseError, 0);
+        }
+        assertFalse(results[4].is_match());
+        assertTrue(results[4].firstMismatch >= 0);
+        file.delete();
+    }
+
+    @Test
+    public void testCompositePath() {
+        final DriveCharacterization dc = new DriveCharacterization(10, 14, 50);
+        final ArrayList<WayPoint> whole = new ArrayList<>();
+        whole.add(new WayPoint(0, 0, 0));
+        whole.add(new WayPoint(40, 0, 0));
+        whole.add(new WayPoint(100, 0, 0));
+        final Path single = new WayPointPath(whole);
+        final List<Path> parts = new ArrayList<>();
+        parts.add(new WayPointPath(new ArrayList<>(whole.subList(0, 2))));
+        parts.add(new WayPointPath(new ArrayList<>(whole.subList(1, 3))));
+        final CompositePath blended = new CompositePath(parts, 5, true);
+        assertEquals(parts.get(0).get_size() + parts.get(1).get_size(), blended.get_size());
+        assertEquals(40, blended.get_point(parts.get(0).get_size()).x, 0);
+        final PurePursuitController controller = new PurePursuitController(blended, dc, 5);
+        PurePursuitController.profile(single, dc);
+        assertEquals(single.get_duration(), blended.get_duration(), 1e-5);
+        assertEquals(single.sample_distance(70).velocity, blended.sample_distance(70).velocity, 1e-9);
+
+        final Pose pose = new Pose(0, 0, 0);
+        final DriveCommand command = new DriveCommand(0, 0);
+        int ticks = 0;
+        while (!controller.is_finished() && ticks++ < 2000) {
+            controller.pursuit_path(pose, command);
+            if (pose.x > 10 && pose.x < 90)
+                assertTrue(command.left_command > 0 && command.right_command > 0);
+            pose.update(dc, command.left_command * 0.01, command.right_command * 0.01);
+        }
+        assertTrue(controller.is_finished());
+        assertEquals(1, blended.get_part());
+        assertEquals(parts.get(0).get_size(), blended.get_offset());
+        assertEquals(0, ((CompositePath) blended.fork()).get_part());
+
+        final ArrayList<WayPoint> loop = new ArrayList<>();
+        loop.add(new WayPoint(0, 0, 0));
+        loop.add(new WayPoint(60, 10, Math.PI / 2));
+        loop.add(new WayPoint(0, 2, Math.PI));
+        final ArrayList<WayPoint> after = new ArrayList<>();
+        after.add(new WayPoint(0, 2, Math.PI));
+        after.add(new WayPoint(-40, 2, Math.PI));
+        final List<Path> looping = new ArrayList<>();
+        looping.add(new WayPointPath(loop));
+        looping.add(new WayPointPath(after));
+        final CompositePath sequence = new CompositePath(looping, 5, true);
+        final PurePursuitController follower = new PurePursuitController(sequence, dc, 5);
+        final Pose robot = new Pose(0, 0, 0);
+        follower.pursuit_path(robot, command);
+        assertEquals(0, sequence.get_part());
+        for (int i = 0; i < 5000 && !follower.is_finished(); i++) {
+            follower.pursuit_path(robot, command);
+            robot.update(dc, command.left_command * 0.01, command.right_command * 0.01);
+        }
+        assertTrue(follower.is_finished());
+        assertEquals(1, sequence.get_part());
+        assertEquals(-40, robot.x, 1.5);
+    }
+
+    @Test
+    public void testPathCache() {
+        final PathCache cache = new PathCache(2, 1e-3, 1);
+        final DriveCharacterization dc = new DriveCharacterization(10, 14, 50);
+        final ArrayList<WayPoint> waypoints = new ArrayList<>();
+        waypoints.add(new WayPoint(0, 0, 0));
+        waypoints.add(new WayPoint(24, 12, 0));
+        final Path path = cache.get(waypoints, dc);
+        assertEquals(dc, path.get_profile());
+        waypoints.set(1, new WayPoint(24.0001, 12, 0));
+        assertTrue(path == cache.get(waypoints, dc));
+        assertFalse(path == cache.get(waypoints, new DriveCharacterization(12, 14, 50)));
+        waypoints.set(1, new WayPoint(30, 12, 0));
+        cache.get(waypoints, dc);
+        assertEquals(1, cache.get_hits());
+        assertEquals(3, cache.get_misses());
+        assertEquals(1, cache.get_evictions());
+        assertEquals(2, cache.get_size());
+    }
+
+    @Test
+    public void testLookAheadIntersection() {
+        final ArrayList<WayPoint> waypoints = new ArrayList<>();
+        waypoints.add(new WayPoint(0, 0, 0));
+        waypoints.add(new WayPoint(48, 0, 0));
+        final Path path = new WayPointPath(waypoints, 12);
+        final DriveCharacterization dc = new DriveCharacterization(10, 14, 50);
+        final PurePursuitController controller = new PurePursuitController(path, dc, 5);
+        controller.pursuit_path(new Pose(0, 0, 0));
+        assertEquals(5, controller.get_lookAhead().x, 1e-9);
+        assertEquals(0, controller.get_lookAhead().y, 1e-9);
+        final double fraction = controller.get_lookAhead_fractional_index();
+        assertTrue(fraction > 0 && fraction < 1);
+        controller.pursuit_path(new Pose(45, 0, 0));
+        assertEquals(48, controller.get_lookAhead().x, 1e-9);
+        assertEquals(path.get_size() - 1, controller.get_lookAhead_fractional_index(), 0);
+
+        final ArrayList<WayPoint> curve = new ArrayList<>();
+        curve.add(new WayPoint(0, 0, 0));
+        curve.add(new WayPoint(12, 0, Math.PI / 2));
+        curve.add(new WayPoint(24, 24, Math.PI / 2));
+        final Path sparse = new WayPointPath(curve, 6);
+        final Pose pose = new Pose(0, 0, 0);
+        final DriveCommand command = new DriveCommand(0, 0);
+        final PurePursuitController follower = new PurePursuitController(sparse, dc, 5);
+        final List<Pose> poses = new ArrayList<>();
+        for (int i = 0; i < 3000 && !follower.is_finished(); i++) {
+            poses.add(new Pose(pose.x, pose.y, pose.theta));
+            follower.pursuit_path(pose, command);
+            pose.update(dc, command.left_command * 0.01, command.right_command * 0.01);
+        }
+        assertTrue(follower.is_finished());
+        final TrajBuffer points = sparse.get_buffer();
+        assertTrue(pose.dist(new Point(points.x[points.size - 1], points.y[points.size - 1])) <= 1.5);
+
+        final ArrayList<WayPoint> weave = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            weave.add(new WayPoint(12 * i, (i % 2 == 0) ? 0 : 24));
+        final Path tight = new WayPointPath(weave);
+        assertTrue(tight.get_buffer().curvature[0] >= 1);
+        final PurePursuitController weaving = new PurePursuitController(tight, dc, 12);
+        final Pose robot = new Pose(0, 0, Math.atan2(24, 12));
+        weaving.pursuit_path(robot, command);
+        assertFalse(weaving.is_finished());
+        assertTrue(command.left_command != 0 || command.right_command != 0);
+        for (int i = 0; i < 5000 && !weaving.is_finished(); i++) {
+            weaving.pursuit_path(robot, command);
+            robot.update(dc, command.left_command * 0.01, command.right_command * 0.01);
+        }
+        assertTrue(weaving.is_finished());
+        assertTrue(robot.dist(new Point(108, 24)) <= PurePursuitController.FINISH_TOLERANCE);
+
+        final Path indexed = new WayPointPath(curve);
+        indexed.build_index(5);
+        final PurePursuitController withIndex = new PurePursuitController(indexed, dc, 5);
+        final PurePursuitController withoutIndex = new PurePursuitController(new WayPointPath(curve), dc, 5);
+        for (final Pose p : poses) {
+            withIndex.pursuit_path(p, command);
+            withoutIndex.pursuit_path(p, command);
+            assertEquals(withoutIndex.get_closest_point(), withIndex.get_closest_point());
+            assertEquals(withoutIndex.get_lookAhead_fractional_index(),
+                    withIndex.get_lookAhead_fractional_index(), 0);
+        }
+    }
+
+    @Test
+    public void testPathBuilder() throws InterruptedException {
+        final DriveCharacterization dc = new DriveCharacterization(10, 14, 50);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final VelocityProfiler blocking = new VelocityProfiler(dc) {
+            @Override
+            public void profile(final TrajBuffer points) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.profile(points);
+            }
+        };
+        final ArrayList<WayPoint> waypoints = new ArrayList<>();
+        waypoints.add(new WayPoint(0, 0, 0));
+        waypoints.add(new WayPoint(24, 12, 0));
+        try (PathBuilder builder = new PathBuilder(1, 4, 1)) {
+            final CompletableFuture<Path> first = builder.build(waypoints, blocking);
+            started.await();
+            final CompletableFuture<Path> second = builder.build(waypoints, dc);
+            final CompletableFuture<Path> third = builder.build(waypoints, dc);
+            release.countDown();
+            assertTrue(first.isCancelled());
+            assertTrue(second.isCancelled());
+            final Path path = third.join();
+            assertEquals(dc, path.get_profile());
+            assertEquals(24, path.get_buffer().x[path.get_size() - 1], 1e-9);
+
+            final VelocityProfiler failing = new VelocityProfiler(dc) {
+                @Override
+                public void profile(final TrajBuffer points) {
+                    throw new StackOverflowError();
+                }
+            };
+            final Throwable error = builder.build(waypoints, failing).handle((p, e) -> e).join();
+            assertTrue(error instanceof StackOverflowError);
+        }
+    }
+}